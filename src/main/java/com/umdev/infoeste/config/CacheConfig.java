@@ -0,0 +1,135 @@
+package com.umdev.infoeste.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.umdev.infoeste.dto.ProductDetailDto;
+import com.umdev.infoeste.dto.StoreDetailDto;
+import com.umdev.infoeste.security.JwtService.VerifiedToken;
+import com.umdev.infoeste.services.RefreshTokenService.RefreshSession;
+import com.umdev.infoeste.services.cache.ListingResultCache.CachedListing;
+import com.umdev.infoeste.services.cache.ListingResultCache.ListingKey;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * In-process caches for product and store details, listing pages, verified JWTs and refresh tokens. Eviction is W-TinyLFU
+ * (details are weighted by the approximate size of each DTO) and the caches are registered in the
+ * {@link CacheManager} so hits, misses and evictions show up under the {@code cache.*} metrics.
+ */
+@Configuration
+public class CacheConfig {
+
+    public static final String PRODUCT_DETAILS = "productDetails";
+    public static final String STORE_DETAILS = "storeDetails";
+    public static final String PRODUCT_LISTINGS = "productListings";
+    public static final String VERIFIED_TOKENS = "verifiedTokens";
+    public static final String REFRESH_TOKENS = "refreshTokens";
+
+    // Custo fixo estimado de um objeto e de cada String (cabeçalhos, referências e o array interno)
+    private static final int OBJECT_OVERHEAD = 64;
+    private static final int STRING_OVERHEAD = 40;
+
+    private final Duration ttl;
+
+    public CacheConfig(@Value("${catalog.detail-cache.ttl}") Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    @Bean
+    public Cache<UUID, ProductDetailDto> productDetailCache(
+            @Value("${catalog.detail-cache.products-max-size}") DataSize maxSize) {
+        return Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((UUID id, ProductDetailDto product) -> estimateSize(product.name(), product.description(),
+                        product.category(), product.imageUrl(), product.store().name()))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    @Bean
+    public Cache<UUID, StoreDetailDto> storeDetailCache(
+            @Value("${catalog.detail-cache.stores-max-size}") DataSize maxSize) {
+        return Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((UUID id, StoreDetailDto store) -> estimateSize(store.name(), store.city(), store.address(),
+                        store.phone(), store.description()))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    @Bean
+    public Cache<ListingKey, CachedListing> productListingCache(
+            @Value("${catalog.listing-cache.ttl}") Duration listingTtl,
+            @Value("${catalog.listing-cache.max-entries}") long maxEntries) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(listingTtl)
+                .recordStats()
+                .build();
+    }
+
+    // Cada token sai do cache no próprio exp, então um token expirado nunca é aceito a partir do cache
+    @Bean
+    public Cache<String, VerifiedToken> verifiedTokenCache(
+            @Value("${jwt.verified-cache.max-entries}") long maxEntries) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(Expiry.creating((String hash, VerifiedToken token) -> untilExpiration(token.expiresAt())))
+                .recordStats()
+                .build();
+    }
+
+    // Só os tokens recém-emitidos ficam aqui; os que saírem do cache continuam válidos pela tabela
+    @Bean
+    public Cache<String, RefreshSession> refreshTokenCache(
+            @Value("${jwt.refresh.cache-max-entries}") long maxEntries) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(Expiry.creating((String hash, RefreshSession session) -> untilExpiration(session.expiresAt())))
+                .recordStats()
+                .build();
+    }
+
+    @Bean
+    @SuppressWarnings("unchecked")
+    public CacheManager cacheManager(@Qualifier("productDetailCache") Cache<?, ?> productDetailCache,
+                                     @Qualifier("storeDetailCache") Cache<?, ?> storeDetailCache,
+                                     @Qualifier("productListingCache") Cache<?, ?> productListingCache,
+                                     @Qualifier("verifiedTokenCache") Cache<?, ?> verifiedTokenCache,
+                                     @Qualifier("refreshTokenCache") Cache<?, ?> refreshTokenCache) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(PRODUCT_DETAILS, (Cache<Object, Object>) productDetailCache);
+        cacheManager.registerCustomCache(STORE_DETAILS, (Cache<Object, Object>) storeDetailCache);
+        cacheManager.registerCustomCache(PRODUCT_LISTINGS, (Cache<Object, Object>) productListingCache);
+        cacheManager.registerCustomCache(VERIFIED_TOKENS, (Cache<Object, Object>) verifiedTokenCache);
+        cacheManager.registerCustomCache(REFRESH_TOKENS, (Cache<Object, Object>) refreshTokenCache);
+        return cacheManager;
+    }
+
+    private static Duration untilExpiration(Instant expiresAt) {
+        Duration remaining = Duration.between(Instant.now(), expiresAt);
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    private static int estimateSize(String... values) {
+        int size = OBJECT_OVERHEAD;
+        for (String value : values) {
+            if (value != null) {
+                size += STRING_OVERHEAD + 2 * value.length();
+            }
+        }
+        return size;
+    }
+}
@@ -0,0 +1,59 @@
+package com.umdev.infoeste.config;
+
+import com.umdev.infoeste.security.RateLimitRule;
+import com.umdev.infoeste.security.RateLimitRule.KeyType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import java.time.Duration;
+
+/**
+ * One {@link RateLimitRule} per throttled route; the {@code RateLimitFilter} applies every rule bean in order.
+ */
+@Configuration
+public class RateLimitConfig {
+
+    private final long maxKeys;
+
+    public RateLimitConfig(@Value("${rate-limit.max-keys}") long maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    @Bean
+    public RateLimitRule loginRateLimit(@Value("${rate-limit.login.capacity}") int capacity,
+                                        @Value("${rate-limit.login.period}") Duration period) {
+        return new RateLimitRule("login", post("/v1/stores/login"), KeyType.IP, capacity, period, maxKeys);
+    }
+
+    // Limite por conta: distribuir as tentativas entre muitos IPs não acelera a adivinhação de uma senha
+    @Bean
+    public RateLimitRule loginEmailRateLimit(@Value("${rate-limit.login-email.capacity}") int capacity,
+                                             @Value("${rate-limit.login-email.period}") Duration period) {
+        return new RateLimitRule("login-email", post("/v1/stores/login"), KeyType.EMAIL, capacity, period, maxKeys);
+    }
+
+    @Bean
+    public RateLimitRule registerRateLimit(@Value("${rate-limit.register.capacity}") int capacity,
+                                           @Value("${rate-limit.register.period}") Duration period) {
+        return new RateLimitRule("register", post("/v1/stores/register"), KeyType.IP, capacity, period, maxKeys);
+    }
+
+    // Uploads de imagem contam por loja, já que exigem autenticação
+    @Bean
+    public RateLimitRule uploadRateLimit(@Value("${rate-limit.uploads.capacity}") int capacity,
+                                         @Value("${rate-limit.uploads.period}") Duration period) {
+        RequestMatcher productsPath = PathPatternRequestMatcher.withDefaults().matcher("/v1/products/**");
+        RequestMatcher multipart = request -> request.getContentType() != null
+                && request.getContentType().toLowerCase().startsWith("multipart/");
+        return new RateLimitRule("uploads", request -> productsPath.matches(request) && multipart.matches(request),
+                KeyType.STORE, capacity, period, maxKeys);
+    }
+
+    private static RequestMatcher post(String path) {
+        return PathPatternRequestMatcher.withDefaults().matcher(HttpMethod.POST, path);
+    }
+}
@@ -52,7 +52,8 @@ public class SwaggerConfig {
                             ## Formato de Imagens:
                             - Formatos aceitos: JPG, PNG, WEBP
                             - Tamanho máximo: 5MB
-                            - Imagens são armazenadas em Base64
+                            - Imagens são armazenadas fora do banco de dados, endereçadas pelo hash SHA-256 do conteúdo
+                            - Os produtos retornam `imageUrl`, que aponta para `/v1/products/{productId}/image`
                             """)
                 );
     }
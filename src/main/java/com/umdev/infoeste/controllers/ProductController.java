@@ -1,7 +1,13 @@
 package com.umdev.infoeste.controllers;
 
 import com.umdev.infoeste.dto.*;
+import com.umdev.infoeste.mappers.ProductImageMapper;
+import com.umdev.infoeste.security.AuthenticatedStore;
 import com.umdev.infoeste.services.ProductService;
+import com.umdev.infoeste.services.cache.CatalogVersion;
+import com.umdev.infoeste.services.storage.ImageSize;
+import com.umdev.infoeste.services.storage.StoredImage;
+import com.umdev.infoeste.utils.http.RequestUris;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -15,18 +21,23 @@ import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import jakarta.servlet.http.HttpServletRequest;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
 
@@ -40,9 +51,11 @@ public class ProductController {
     private static final Logger logger = LoggerFactory.getLogger(ProductController.class);
 
     private final ProductService productService;
+    private final CatalogVersion catalogVersion;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, CatalogVersion catalogVersion) {
         this.productService = productService;
+        this.catalogVersion = catalogVersion;
     }
 
 
@@ -83,7 +96,7 @@ public class ProductController {
         )
     })
     public ResponseEntity<ProductCreateResponseDto> createProductNew(
-            Authentication authentication,
+            @AuthenticationPrincipal AuthenticatedStore principal,
             @Parameter(description = "Nome do produto", required = true, example = "Notebook Gamer")
             @RequestPart("name") String name,
             
@@ -124,8 +137,7 @@ public class ProductController {
             
             ProductCreateDto productDto = new ProductCreateDto(name, description, priceValue, stockValue, category);
             
-            String storeEmail = authentication.getName();
-            ProductCreateResponseDto response = productService.createProduct(storeEmail, productDto, file);
+            ProductCreateResponseDto response = productService.createProduct(principal.storeId(), productDto, file);
             
             logger.info("=== PRODUCT CREATED SUCCESSFULLY ===");
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
@@ -210,9 +222,8 @@ public class ProductController {
             )
         )
     })
-    public ResponseEntity<List<ProductMyListDto>> getMyProducts(Authentication authentication) {
-        String storeEmail = authentication.getName();
-        List<ProductMyListDto> products = productService.getMyProducts(storeEmail);
+    public ResponseEntity<List<ProductMyListDto>> getMyProducts(@AuthenticationPrincipal AuthenticatedStore principal) {
+        List<ProductMyListDto> products = productService.getMyProducts(principal.storeId());
         return ResponseEntity.ok(products);
     }
 
@@ -283,7 +294,7 @@ public class ProductController {
         )
     })
     public ResponseEntity<ProductCreateResponseDto> updateProduct(
-            Authentication authentication,
+            @AuthenticationPrincipal AuthenticatedStore principal,
             @Parameter(description = "ID único do produto", required = true, example = "123e4567-e89b-12d3-a456-426614174000")
             @PathVariable UUID productId,
             @io.swagger.v3.oas.annotations.parameters.RequestBody(
@@ -304,8 +315,7 @@ public class ProductController {
             )
             @RequestBody ProductUpdateDto updateDto) {
         
-        String storeEmail = authentication.getName();
-        ProductCreateResponseDto response = productService.updateProduct(storeEmail, productId, updateDto);
+        ProductCreateResponseDto response = productService.updateProduct(principal.storeId(), productId, updateDto);
         return ResponseEntity.ok(response);
     }
 
@@ -342,17 +352,55 @@ public class ProductController {
         )
     })
     public ResponseEntity<ProductImageUpdateResponseDto> updateProductImage(
-            Authentication authentication,
+            @AuthenticationPrincipal AuthenticatedStore principal,
             @Parameter(description = "ID único do produto", required = true, example = "123e4567-e89b-12d3-a456-426614174000")
             @PathVariable UUID productId,
             @Parameter(description = "Nova imagem do produto (JPG, PNG ou WEBP, máximo 5MB)", required = true)
             @RequestPart("file") MultipartFile file) {
         
-        String storeEmail = authentication.getName();
-        ProductImageUpdateResponseDto response = productService.updateProductImage(storeEmail, productId, file);
+        ProductImageUpdateResponseDto response = productService.updateProductImage(principal.storeId(), productId, file);
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/suggest")
+    @Operation(
+        summary = "Sugestões para a caixa de busca",
+        description = "Retorna nomes de produtos, categorias e lojas que começam com o prefixo informado " +
+                "(ou que têm uma palavra que começa com ele), sem diferenciar maiúsculas e acentos. " +
+                "Respondido da memória, sem consultar o banco. Não requer autenticação."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Sugestões retornadas com sucesso",
+            content = @Content(
+                mediaType = MediaType.APPLICATION_JSON_VALUE,
+                examples = @ExampleObject(value = """
+                    [
+                      {
+                        "text": "Notebook Dell Inspiron",
+                        "type": "PRODUCT",
+                        "id": "123e4567-e89b-12d3-a456-426614174000"
+                      },
+                      {
+                        "text": "Notebooks",
+                        "type": "CATEGORY"
+                      }
+                    ]
+                    """)
+            )
+        )
+    })
+    public ResponseEntity<List<SuggestionDto>> suggest(
+            @Parameter(description = "Texto digitado até o momento", required = true, example = "note")
+            @RequestParam String prefix,
+            
+            @Parameter(description = "Número máximo de sugestões (até 20)", example = "8")
+            @RequestParam(defaultValue = "8") int limit) {
+        
+        return ResponseEntity.ok(productService.suggest(prefix, limit));
+    }
+
     @GetMapping
     @Operation(
         summary = "Listar produtos públicos",
@@ -379,7 +427,7 @@ public class ProductController {
                           "price": 2999.99,
                           "stock": 15,
                           "category": "Eletrônicos",
-                          "imageBase64": "data:image/jpeg;base64,/9j/4AAQSkZJRgABA...",
+                          "imageUrl": "https://api.example.com/v1/products/123e4567-e89b-12d3-a456-426614174000/image?v=9f86d081884c",
                           "store": {
                             "id": "store-uuid",
                             "name": "Tech Store",
@@ -392,7 +440,7 @@ public class ProductController {
                           "price": 149.90,
                           "stock": 50,
                           "category": "Periféricos",
-                          "imageBase64": "data:image/png;base64,iVBORw0KGgoAAA...",
+                          "imageUrl": "https://api.example.com/v1/products/987fcdeb-51a2-43e1-b789-123456789abc/image?v=2c26b46b68ff",
                           "store": {
                             "id": "store-uuid-2",
                             "name": "Gamer Store",
@@ -404,6 +452,10 @@ public class ProductController {
                     """)
             )
         ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "Lista não modificada desde a última requisição (If-None-Match)"
+        ),
         @ApiResponse(
             responseCode = "400",
             description = "Parâmetros de consulta inválidos"
@@ -416,7 +468,19 @@ public class ProductController {
             @Parameter(description = "Número de itens por página", example = "10")
             @RequestParam(defaultValue = "10") int limit,
             
-            @Parameter(description = "Termo de busca no nome do produto", example = "notebook")
+            @Parameter(description = "Cursor para paginação por chave (keyset). Envie vazio para a primeira página e depois o valor de meta.nextCursor; quando presente, page é ignorado. Numa busca (q) sem sort, a ordem é por relevância e a pontuação muda a cada alteração no catálogo: entre páginas, resultados podem se repetir ou ser pulados", example = "")
+            @RequestParam(required = false) String cursor,
+            
+            @Parameter(description = "Calcula meta.total (contagem de itens). Padrão: true na paginação por página e false com cursor; envie false para pular a contagem", example = "true")
+            @RequestParam(required = false) Boolean includeTotal,
+            
+            @Parameter(description = "Inclui em facets a contagem de produtos por categoria e o histograma de preços para montar os filtros", example = "false")
+            @RequestParam(defaultValue = "false") boolean includeFacets,
+            
+            @Parameter(description = "Ordenação: newest (mais recentes, padrão), price_asc, price_desc ou name. Com q, o padrão é a relevância", example = "price_asc")
+            @RequestParam(required = false) String sort,
+            
+            @Parameter(description = "Termo de busca no nome, categoria e descrição do produto, sem diferenciar maiúsculas e acentos (resultados ordenados por relevância)", example = "notebook")
             @RequestParam(required = false) String q,
             
             @Parameter(description = "Filtrar por categoria", example = "Eletrônicos")
@@ -426,11 +490,18 @@ public class ProductController {
             @RequestParam(required = false) BigDecimal minPrice,
             
             @Parameter(description = "Preço máximo para filtro", example = "5000.00")
-            @RequestParam(required = false) BigDecimal maxPrice) {
+            @RequestParam(required = false) BigDecimal maxPrice,
+
+            ServletWebRequest webRequest) {
         
+        String eTag = catalogVersion.productsETag(RequestUris.withParameters(webRequest));
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+
         PaginatedResponseDto<ProductPublicDto> response = productService.getProducts(
-                page, limit, q, category, minPrice, maxPrice);
-        return ResponseEntity.ok(response);
+                page, limit, cursor, includeTotal, includeFacets, sort, q, category, minPrice, maxPrice);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(eTag).body(response);
     }
 
     @GetMapping("/store/{storeId}")
@@ -459,7 +530,7 @@ public class ProductController {
                           "price": 2999.99,
                           "stock": 15,
                           "category": "Eletrônicos",
-                          "imageBase64": "data:image/jpeg;base64,/9j/4AAQSkZJRgABA...",
+                          "imageUrl": "https://api.example.com/v1/products/123e4567-e89b-12d3-a456-426614174000/image?v=9f86d081884c",
                           "store": {
                             "id": "store-uuid",
                             "name": "Tech Store",
@@ -471,6 +542,10 @@ public class ProductController {
                     """)
             )
         ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "Lista não modificada desde a última requisição (If-None-Match)"
+        ),
         @ApiResponse(
             responseCode = "400",
             description = "Parâmetros de consulta inválidos",
@@ -514,7 +589,19 @@ public class ProductController {
             @Parameter(description = "Número de itens por página", example = "10")
             @RequestParam(defaultValue = "10") int limit,
             
-            @Parameter(description = "Termo de busca no nome do produto", example = "notebook")
+            @Parameter(description = "Cursor para paginação por chave (keyset). Envie vazio para a primeira página e depois o valor de meta.nextCursor; quando presente, page é ignorado. Numa busca (q) sem sort, a ordem é por relevância e a pontuação muda a cada alteração no catálogo: entre páginas, resultados podem se repetir ou ser pulados", example = "")
+            @RequestParam(required = false) String cursor,
+            
+            @Parameter(description = "Calcula meta.total (contagem de itens). Padrão: true na paginação por página e false com cursor; envie false para pular a contagem", example = "true")
+            @RequestParam(required = false) Boolean includeTotal,
+            
+            @Parameter(description = "Inclui em facets a contagem de produtos por categoria e o histograma de preços para montar os filtros", example = "false")
+            @RequestParam(defaultValue = "false") boolean includeFacets,
+            
+            @Parameter(description = "Ordenação: newest (mais recentes, padrão), price_asc, price_desc ou name. Com q, o padrão é a relevância", example = "price_asc")
+            @RequestParam(required = false) String sort,
+            
+            @Parameter(description = "Termo de busca no nome, categoria e descrição do produto, sem diferenciar maiúsculas e acentos (resultados ordenados por relevância)", example = "notebook")
             @RequestParam(required = false) String q,
             
             @Parameter(description = "Filtrar por categoria", example = "Eletrônicos")
@@ -524,17 +611,25 @@ public class ProductController {
             @RequestParam(required = false) BigDecimal minPrice,
             
             @Parameter(description = "Preço máximo para filtro", example = "5000.00")
-            @RequestParam(required = false) BigDecimal maxPrice) {
+            @RequestParam(required = false) BigDecimal maxPrice,
+
+            ServletWebRequest webRequest) {
         
+        String eTag = catalogVersion.productsOfStoreETag(storeId, RequestUris.withParameters(webRequest));
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+
         PaginatedResponseDto<ProductPublicDto> response = productService.getProductsByStore(
-                storeId, page, limit, q, category, minPrice, maxPrice);
-        return ResponseEntity.ok(response);
+                storeId, page, limit, cursor, includeTotal, includeFacets, sort, q, category, minPrice, maxPrice);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(eTag).body(response);
     }
 
     @GetMapping("/{productId}")
     @Operation(
         summary = "Obter detalhes de um produto",
-        description = "Retorna os detalhes completos de um produto específico. Não requer autenticação."
+        description = "Retorna os detalhes completos de um produto específico. A imagem é referenciada por `imageUrl`; " +
+                "use `inlineImage=true` apenas se o cliente precisar dela embutida como data URI. Não requer autenticação."
     )
     @ApiResponses(value = {
         @ApiResponse(
@@ -545,6 +640,10 @@ public class ProductController {
                 schema = @Schema(implementation = ProductDetailDto.class)
             )
         ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "Produto não modificado desde a última requisição (If-None-Match)"
+        ),
         @ApiResponse(
             responseCode = "400",
             description = "ID do produto em formato inválido",
@@ -580,9 +679,70 @@ public class ProductController {
     })
     public ResponseEntity<ProductDetailDto> getProductById(
             @Parameter(description = "ID único do produto", required = true, example = "123e4567-e89b-12d3-a456-426614174000")
-            @PathVariable UUID productId) {
-        ProductDetailDto product = productService.getProductById(productId);
-        return ResponseEntity.ok(product);
+            @PathVariable UUID productId,
+            @Parameter(description = "Inclui a imagem como data URI em Base64 no campo imageData (compatibilidade com clientes antigos)", example = "false")
+            @RequestParam(defaultValue = "false") boolean inlineImage,
+            ServletWebRequest webRequest) {
+        String eTag = catalogVersion.productsETag(RequestUris.withParameters(webRequest));
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+
+        ProductDetailDto product = productService.getProductById(productId, inlineImage);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(eTag).body(product);
+    }
+
+    @GetMapping("/{productId}/image")
+    @Operation(
+        summary = "Obter imagem de um produto",
+        description = "Retorna os bytes da imagem do produto. Com `size=160` ou `size=480` retorna uma miniatura JPEG " +
+                "(ou o original, enquanto a miniatura ainda não foi gerada). Não requer autenticação."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Imagem retornada com sucesso",
+            content = {
+                @Content(mediaType = MediaType.IMAGE_JPEG_VALUE),
+                @Content(mediaType = MediaType.IMAGE_PNG_VALUE),
+                @Content(mediaType = "image/webp")
+            }
+        ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "Imagem não modificada desde a última requisição (If-None-Match)"
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Tamanho de imagem inválido"
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Produto não encontrado"
+        )
+    })
+    public ResponseEntity<Resource> getProductImage(
+            @Parameter(description = "ID único do produto", required = true, example = "123e4567-e89b-12d3-a456-426614174000")
+            @PathVariable UUID productId,
+            @Parameter(description = "Largura da imagem: 160, 480 ou original", example = "480")
+            @RequestParam(defaultValue = "original") String size,
+            @Parameter(description = "Versão da imagem, presente nas URLs retornadas pela API", example = "9f86d081884c")
+            @RequestParam(value = "v", required = false) String version) {
+
+        StoredImage image = productService.getProductImage(productId, ImageSize.fromParam(size));
+
+        // Com a versão emitida pela API a resposta nunca muda; sem ela (ou com um prefixo qualquer da chave), ou com o
+        // original no lugar da miniatura, o cliente revalida pelo ETag
+        CacheControl cacheControl = !image.provisional() && version != null
+                && version.length() == ProductImageMapper.VERSION_LENGTH && image.key().startsWith(version)
+                ? CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable()
+                : CacheControl.noCache().cachePublic();
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(image.contentType()))
+                .cacheControl(cacheControl)
+                .eTag(image.key())
+                .body(image.resource());
     }
 
     @DeleteMapping("/{productId}")
@@ -641,12 +801,11 @@ public class ProductController {
         )
     })
     public ResponseEntity<Void> deleteProduct(
-            Authentication authentication,
+            @AuthenticationPrincipal AuthenticatedStore principal,
             @Parameter(description = "ID único do produto", required = true, example = "123e4567-e89b-12d3-a456-426614174000")
             @PathVariable UUID productId) {
         
-        String storeEmail = authentication.getName();
-        productService.deleteProduct(storeEmail, productId);
+        productService.deleteProduct(principal.storeId(), productId);
         return ResponseEntity.noContent().build();
     }
 
@@ -716,4 +875,4 @@ public class ProductController {
             return ResponseEntity.ok("Success - name: " + name + ", no file");
         }
     }
-}
\ No newline at end of file
+}
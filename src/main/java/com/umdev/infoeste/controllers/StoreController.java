@@ -2,6 +2,8 @@ package com.umdev.infoeste.controllers;
 
 import com.umdev.infoeste.dto.*;
 import com.umdev.infoeste.services.StoreService;
+import com.umdev.infoeste.services.cache.CatalogVersion;
+import com.umdev.infoeste.utils.http.RequestUris;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,11 +14,12 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.UUID;
 
@@ -27,9 +30,11 @@ import java.util.UUID;
 public class StoreController {
 
     private final StoreService storeService;
+    private final CatalogVersion catalogVersion;
 
-    public StoreController(StoreService storeService) {
+    public StoreController(StoreService storeService, CatalogVersion catalogVersion) {
         this.storeService = storeService;
+        this.catalogVersion = catalogVersion;
     }
 
     @PostMapping("/register")
@@ -112,7 +117,7 @@ public class StoreController {
     @PostMapping("/login")
     @Operation(
         summary = "Login da loja",
-        description = "Autentica uma loja no sistema e retorna um token JWT. Não requer autenticação."
+        description = "Autentica uma loja no sistema e retorna um token JWT e um refresh token. Não requer autenticação."
     )
     @ApiResponses(value = {
         @ApiResponse(
@@ -158,41 +163,95 @@ public class StoreController {
                     }
                     """)
             )
+        )
+    })
+    public ResponseEntity<StoreLoginResponseDto> login(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                description = "Credenciais para login",
+                required = true,
+                content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = StoreLoginDto.class),
+                    examples = @ExampleObject(value = """
+                        {
+                          "email": "contato@techstore.com",
+                          "password": "senha123"
+                        }
+                        """)
+                )
+            )
+            @Valid @RequestBody StoreLoginDto loginDto) {
+        StoreLoginResponseDto response = storeService.login(loginDto);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/refresh")
+    @Operation(
+        summary = "Renovar sessão da loja",
+        description = "Troca um refresh token válido por um novo token JWT e um novo refresh token. " +
+                "Cada refresh token só pode ser usado uma vez. Não requer autenticação."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Sessão renovada com sucesso",
+            content = @Content(
+                mediaType = MediaType.APPLICATION_JSON_VALUE,
+                schema = @Schema(implementation = StoreRefreshResponseDto.class)
+            )
         ),
         @ApiResponse(
-            responseCode = "404",
-            description = "Loja não encontrada com o email fornecido",
+            responseCode = "400",
+            description = "Refresh token ausente",
             content = @Content(
                 mediaType = MediaType.APPLICATION_JSON_VALUE,
                 examples = @ExampleObject(value = """
                     {
                       "timestamp": "2025-10-29T10:30:00-03:00",
-                      "path": "uri=/v1/stores/login",
-                      "status": 404,
-                      "error": "Not Found",
-                      "message": "Store not found with email: nonexistent@example.com"
+                      "path": "uri=/v1/stores/refresh",
+                      "status": 400,
+                      "error": "Bad Request",
+                      "message": "Validation failed for one or more fields.",
+                      "validationErrors": [
+                        {"field": "refreshToken", "message": "Refresh token is required"}
+                      ]
+                    }
+                    """)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "401",
+            description = "Refresh token inválido, já utilizado ou expirado",
+            content = @Content(
+                mediaType = MediaType.APPLICATION_JSON_VALUE,
+                examples = @ExampleObject(value = """
+                    {
+                      "timestamp": "2025-10-29T10:30:00-03:00",
+                      "path": "uri=/v1/stores/refresh",
+                      "status": 401,
+                      "error": "Unauthorized",
+                      "message": "Invalid refresh token"
                     }
                     """)
             )
         )
     })
-    public ResponseEntity<StoreLoginResponseDto> login(
+    public ResponseEntity<StoreRefreshResponseDto> refresh(
             @io.swagger.v3.oas.annotations.parameters.RequestBody(
-                description = "Credenciais para login",
+                description = "Refresh token recebido no login ou na última renovação",
                 required = true,
                 content = @Content(
                     mediaType = MediaType.APPLICATION_JSON_VALUE,
-                    schema = @Schema(implementation = StoreLoginDto.class),
+                    schema = @Schema(implementation = StoreRefreshDto.class),
                     examples = @ExampleObject(value = """
                         {
-                          "email": "contato@techstore.com",
-                          "password": "senha123"
+                          "refreshToken": "q3Jx0mZ8b2VfS1lqN3R4c0dQZ0hLb1FwV3l6QmNkRWY"
                         }
                         """)
                 )
             )
-            @Valid @RequestBody StoreLoginDto loginDto) {
-        StoreLoginResponseDto response = storeService.login(loginDto);
+            @Valid @RequestBody StoreRefreshDto refreshDto) {
+        StoreRefreshResponseDto response = storeService.refresh(refreshDto);
         return ResponseEntity.ok(response);
     }
 
@@ -244,9 +303,8 @@ public class StoreController {
             )
         )
     })
-    public ResponseEntity<StoreProfileDto> getProfile(Authentication authentication) {
-        String email = authentication.getName();
-        StoreProfileDto profile = storeService.getProfile(email);
+    public ResponseEntity<StoreProfileDto> getProfile() {
+        StoreProfileDto profile = storeService.getProfile();
         return ResponseEntity.ok(profile);
     }
 
@@ -289,6 +347,10 @@ public class StoreController {
                     """)
             )
         ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "Lista não modificada desde a última requisição (If-None-Match)"
+        ),
         @ApiResponse(
             responseCode = "400",
             description = "Parâmetros de consulta inválidos",
@@ -313,11 +375,21 @@ public class StoreController {
             @Parameter(description = "Número de itens por página", example = "10")
             @RequestParam(defaultValue = "10") int limit,
             
-            @Parameter(description = "Termo de busca no nome ou cidade da loja", example = "tech")
-            @RequestParam(required = false) String q) {
+            @Parameter(description = "Cursor para paginação por chave (keyset). Envie vazio para a primeira página e depois o valor de meta.nextCursor; quando presente, page é ignorado", example = "")
+            @RequestParam(required = false) String cursor,
+            
+            @Parameter(description = "Busca no nome ou cidade da loja, tolerante a acentos e erros de digitação (resultados ordenados por similaridade)", example = "tech")
+            @RequestParam(required = false) String q,
+
+            ServletWebRequest webRequest) {
         
-        PaginatedResponseDto<StorePublicDto> response = storeService.getStores(page, limit, q);
-        return ResponseEntity.ok(response);
+        String eTag = catalogVersion.storesETag(RequestUris.withParameters(webRequest));
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+
+        PaginatedResponseDto<StorePublicDto> response = storeService.getStores(page, limit, cursor, q);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(eTag).body(response);
     }
 
     @GetMapping("/{storeId}")
@@ -334,6 +406,10 @@ public class StoreController {
                 schema = @Schema(implementation = StoreDetailDto.class)
             )
         ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "Loja não modificada desde a última requisição (If-None-Match)"
+        ),
         @ApiResponse(
             responseCode = "400",
             description = "ID da loja em formato inválido",
@@ -369,8 +445,14 @@ public class StoreController {
     })
     public ResponseEntity<StoreDetailDto> getStoreById(
             @Parameter(description = "ID único da loja", required = true, example = "123e4567-e89b-12d3-a456-426614174000")
-            @PathVariable UUID storeId) {
+            @PathVariable UUID storeId,
+            ServletWebRequest webRequest) {
+        String eTag = catalogVersion.storesETag(RequestUris.withParameters(webRequest));
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+
         StoreDetailDto storeDetail = storeService.getStoreById(storeId);
-        return ResponseEntity.ok(storeDetail);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(eTag).body(storeDetail);
     }
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.umdev.infoeste.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record FacetsDto(
+        List<CategoryCount> categories,
+        List<PriceBucket> priceHistogram
+) {
+    public record CategoryCount(
+            String name,
+            long count
+    ) {
+    }
+
+    // Faixa [min, max): o limite superior pertence à faixa seguinte
+    public record PriceBucket(
+            BigDecimal min,
+            BigDecimal max,
+            long count
+    ) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.umdev.infoeste.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.umdev.infoeste.utils.serializers.InlineImageSerializer;
+import org.springframework.core.io.Resource;
+
+@JsonSerialize(using = InlineImageSerializer.class)
+public record InlineImageDto(
+        String contentType,
+        Resource resource
+) {
+}
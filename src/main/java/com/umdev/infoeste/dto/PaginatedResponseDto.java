@@ -1,15 +1,36 @@
 package com.umdev.infoeste.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
 public record PaginatedResponseDto<T>(
         MetaData meta,
-        List<T> data
+        List<T> data,
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        FacetsDto facets
 ) {
+    public PaginatedResponseDto(MetaData meta, List<T> data) {
+        this(meta, data, null);
+    }
+
+    public PaginatedResponseDto<T> withFacets(FacetsDto facets) {
+        return new PaginatedResponseDto<>(meta, data, facets);
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     public record MetaData(
-            int page,
+            Integer page,
             int limit,
-            long total
+            Long total,
+            String nextCursor
     ) {
+        public MetaData(int page, int limit, long total) {
+            this(page, limit, total, null);
+        }
+
+        public static MetaData ofCursor(int limit, String nextCursor) {
+            return new MetaData(null, limit, null, nextCursor);
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,7 @@
 package com.umdev.infoeste.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.math.BigDecimal;
 import java.util.UUID;
 
@@ -11,8 +13,18 @@ public record ProductDetailDto(
         Integer stock,
         String category,
         String imageUrl,
-        StoreInfo store
+        StoreInfo store,
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        InlineImageDto imageData
 ) {
+    public ProductDetailDto withImageUrl(String imageUrl) {
+        return new ProductDetailDto(id, name, description, price, stock, category, imageUrl, store, imageData);
+    }
+
+    public ProductDetailDto withImageData(InlineImageDto imageData) {
+        return new ProductDetailDto(id, name, description, price, stock, category, imageUrl, store, imageData);
+    }
+
     public record StoreInfo(
             UUID id,
             String name
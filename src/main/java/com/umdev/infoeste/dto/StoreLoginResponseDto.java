@@ -4,6 +4,7 @@ import java.util.UUID;
 
 public record StoreLoginResponseDto(
         String token,
+        String refreshToken,
         StoreInfo store
 ) {
     public record StoreInfo(
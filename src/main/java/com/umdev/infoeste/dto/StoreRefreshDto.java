@@ -0,0 +1,9 @@
+package com.umdev.infoeste.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record StoreRefreshDto(
+        @NotBlank(message = "Refresh token is required")
+        String refreshToken
+) {
+}
@@ -0,0 +1,7 @@
+package com.umdev.infoeste.dto;
+
+public record StoreRefreshResponseDto(
+        String token,
+        String refreshToken
+) {
+}
@@ -0,0 +1,18 @@
+package com.umdev.infoeste.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.UUID;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SuggestionDto(
+        String text,
+        Type type,
+        UUID id
+) {
+    public enum Type {
+        PRODUCT,
+        CATEGORY,
+        STORE
+    }
+}
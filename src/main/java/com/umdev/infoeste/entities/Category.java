@@ -0,0 +1,29 @@
+package com.umdev.infoeste.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Entity
+@Table(name = "categories", indexes = {
+        @Index(name = "idx_categories_name_key", columnList = "name_key", unique = true)
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Category implements Serializable {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(nullable = false, length = 100)
+    private String name;
+
+    // Nome normalizado (minúsculas, sem acentos): "Eletrônicos" e "eletronicos" são a mesma categoria
+    @Column(name = "name_key", nullable = false, length = 100)
+    private String nameKey;
+}
@@ -12,7 +12,16 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_created_at_id", columnList = "createdAt, id"),
+        @Index(name = "idx_products_store_created_at_id", columnList = "store_id, createdAt, id"),
+        @Index(name = "idx_products_category_created_at_id", columnList = "category_id, createdAt, id"),
+        @Index(name = "idx_products_price_id", columnList = "price, id"),
+        @Index(name = "idx_products_store_price_id", columnList = "store_id, price, id"),
+        @Index(name = "idx_products_name_id", columnList = "name, id"),
+        @Index(name = "idx_products_store_name_id", columnList = "store_id, name, id"),
+        @Index(name = "idx_products_image_key", columnList = "image_key")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -35,11 +44,15 @@ public class Product implements Serializable {
     @Column(nullable = false)
     private Integer stock;
 
-    private String category;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "category_id")
+    private Category category;
 
-    @Lob
-    @Column(nullable = false)
-    private String imageBase64;
+    @Column(name = "image_key", nullable = false, length = 64)
+    private String imageKey;
+
+    @Column(name = "image_content_type", nullable = false, length = 50)
+    private String imageContentType;
 
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
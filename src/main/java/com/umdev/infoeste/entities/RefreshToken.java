@@ -0,0 +1,45 @@
+package com.umdev.infoeste.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_token_hash", columnList = "token_hash", unique = true),
+        @Index(name = "idx_refresh_tokens_store_expires_at", columnList = "store_id, expiresAt"),
+        @Index(name = "idx_refresh_tokens_family_id", columnList = "family_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshToken implements Serializable {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    // Só o SHA-256 do token é guardado: um vazamento da tabela não permite renovar sessões
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "store_id", nullable = false)
+    private Store store;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    // Todos os tokens renovados a partir do mesmo login; nulo nos tokens criados antes da coluna existir
+    @Column(name = "family_id")
+    private UUID familyId;
+
+    // Token usado continua na tabela até vencer, para que um replay seja reconhecido como reuso
+    @Column(nullable = false)
+    private boolean used;
+}
@@ -1,5 +1,10 @@
 package com.umdev.infoeste.entities;
 
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
 public enum UserRole {
     ADMIN("admin"),
     USER("user");
@@ -12,5 +17,11 @@ public enum UserRole {
     public String getRole() {
         return role;
     }
+
+    public List<GrantedAuthority> authorities() {
+        if (this == ADMIN)
+            return List.of(new SimpleGrantedAuthority("ROLE_ADMIN"), new SimpleGrantedAuthority("ROLE_USER"));
+        else return List.of(new SimpleGrantedAuthority("ROLE_USER"));
+    }
 }
 
@@ -0,0 +1,15 @@
+package com.umdev.infoeste.events;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Published after a product is created, updated or deleted. {@code categoryIds} holds the
+ * category the product had before the change and the one it has after it.
+ */
+public record ProductChangedEvent(
+        UUID productId,
+        UUID storeId,
+        Set<Integer> categoryIds
+) {
+}
@@ -0,0 +1,8 @@
+package com.umdev.infoeste.events;
+
+import java.util.UUID;
+
+public record StoreChangedEvent(
+        UUID storeId
+) {
+}
@@ -0,0 +1,26 @@
+package com.umdev.infoeste.mappers;
+
+import com.umdev.infoeste.entities.Category;
+import com.umdev.infoeste.services.CategoryDictionary;
+import org.mapstruct.Named;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CategoryNameMapper {
+
+    private final CategoryDictionary categoryDictionary;
+
+    public CategoryNameMapper(CategoryDictionary categoryDictionary) {
+        this.categoryDictionary = categoryDictionary;
+    }
+
+    // O nome vem do dicionário em memória: ler category.getName() carregaria a entidade lazy do banco
+    public String toName(Category category) {
+        return category == null ? null : categoryDictionary.nameOf(category.getId());
+    }
+
+    @Named("categoryName")
+    public String toName(Integer categoryId) {
+        return categoryDictionary.nameOf(categoryId);
+    }
+}
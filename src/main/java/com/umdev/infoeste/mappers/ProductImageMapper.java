@@ -0,0 +1,65 @@
+package com.umdev.infoeste.mappers;
+
+import com.umdev.infoeste.entities.Product;
+import com.umdev.infoeste.repositories.projections.ProductSummary;
+import com.umdev.infoeste.services.storage.ImageSize;
+import org.mapstruct.Named;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.UUID;
+
+@Component
+public class ProductImageMapper {
+
+    // Tamanho do parâmetro "v" nas URLs emitidas pela API
+    public static final int VERSION_LENGTH = 12;
+
+    // O parâmetro "v" muda junto com o conteúdo da imagem, então o navegador pode cachear a URL indefinidamente
+    @Named("imageUrl")
+    public String toImageUrl(Product product) {
+        return buildUrl(product.getId(), product.getImageKey(), ImageSize.ORIGINAL);
+    }
+
+    // Caminho sem host: o que vai para o cache de detalhes não pode depender do Host de quem o preencheu
+    @Named("imagePath")
+    public String toImagePath(Product product) {
+        return buildPath(product.getId(), product.getImageKey(), ImageSize.ORIGINAL);
+    }
+
+    // Listagens usam a miniatura de 480px em vez do arquivo original
+    @Named("thumbnailUrl")
+    public String toThumbnailUrl(ProductSummary product) {
+        return buildUrl(product.getId(), product.getImageKey(), ImageSize.MEDIUM);
+    }
+
+    /**
+     * Turns a path from {@link #toImagePath} into an absolute URL for the current request.
+     */
+    // Qualificado para o MapStruct não usá-lo em todo mapeamento String -> String
+    @Named("absoluteUrl")
+    public String toAbsoluteUrl(String path) {
+        if (path == null) {
+            return null;
+        }
+        return ServletUriComponentsBuilder.fromCurrentContextPath().toUriString() + path;
+    }
+
+    private String buildUrl(UUID productId, String imageKey, ImageSize size) {
+        return toAbsoluteUrl(buildPath(productId, imageKey, size));
+    }
+
+    private static String buildPath(UUID productId, String imageKey, ImageSize size) {
+        if (imageKey == null) {
+            return null;
+        }
+        UriComponentsBuilder builder = UriComponentsBuilder.fromPath("/v1/products/{productId}/image");
+        if (size != ImageSize.ORIGINAL) {
+            builder.queryParam("size", size.getParam());
+        }
+        return builder.queryParam("v", imageKey.substring(0, VERSION_LENGTH))
+                .buildAndExpand(productId)
+                .toUriString();
+    }
+}
@@ -2,34 +2,41 @@ package com.umdev.infoeste.mappers;
 
 import com.umdev.infoeste.dto.*;
 import com.umdev.infoeste.entities.Product;
+import com.umdev.infoeste.repositories.projections.ProductSummary;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
-@Mapper(componentModel = "spring")
+@Mapper(componentModel = "spring", uses = {ProductImageMapper.class, CategoryNameMapper.class})
 public interface ProductMapper {
 
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "createdAt", expression = "java(java.time.LocalDateTime.now())")
     @Mapping(target = "store", ignore = true)
-    @Mapping(target = "imageBase64", ignore = true)
+    @Mapping(target = "imageKey", ignore = true)
+    @Mapping(target = "imageContentType", ignore = true)
+    @Mapping(target = "category", ignore = true)
     Product toEntity(ProductCreateDto dto);
 
     @Mapping(target = "storeId", source = "store.id")
-    @Mapping(target = "imageUrl", expression = "java(\"data:image/jpeg;base64,\" + product.getImageBase64())")
+    @Mapping(target = "imageUrl", source = "product", qualifiedByName = "imageUrl")
     ProductCreateResponseDto toCreateResponse(Product product);
 
-    @Mapping(target = "imageUrl", expression = "java(\"data:image/jpeg;base64,\" + product.getImageBase64())")
-    ProductMyListDto toMyListDto(Product product);
+    @Mapping(target = "imageUrl", source = "product", qualifiedByName = "thumbnailUrl")
+    ProductMyListDto toMyListDto(ProductSummary product);
 
-    @Mapping(target = "storeName", source = "store.name")
-    @Mapping(target = "imageUrl", expression = "java(\"data:image/jpeg;base64,\" + product.getImageBase64())")
-    ProductPublicDto toPublicDto(Product product);
+    @Mapping(target = "imageUrl", source = "product", qualifiedByName = "thumbnailUrl")
+    @Mapping(target = "category", source = "categoryId", qualifiedByName = "categoryName")
+    ProductPublicDto toPublicDto(ProductSummary product);
 
-    @Mapping(target = "imageUrl", expression = "java(\"data:image/jpeg;base64,\" + product.getImageBase64())")
+    // Vai para o cache de detalhes: a URL sai relativa e o ProductService a completa a cada requisição
+    @Mapping(target = "imageUrl", source = "product", qualifiedByName = "imagePath")
     @Mapping(target = "store.id", source = "store.id")
     @Mapping(target = "store.name", source = "store.name")
+    @Mapping(target = "imageData", ignore = true)
+    @Mapping(target = "withImageData", ignore = true)
+    @Mapping(target = "withImageUrl", ignore = true)
     ProductDetailDto toDetailDto(Product product);
 
-    @Mapping(target = "imageUrl", expression = "java(\"data:image/jpeg;base64,\" + product.getImageBase64())")
+    @Mapping(target = "imageUrl", source = "product", qualifiedByName = "imageUrl")
     ProductImageUpdateResponseDto toImageUpdateResponse(Product product);
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.umdev.infoeste.repositories;
+
+import com.umdev.infoeste.entities.Category;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface CategoryRepository extends JpaRepository<Category, Integer> {
+    Optional<Category> findByNameKey(String nameKey);
+}
@@ -0,0 +1,25 @@
+package com.umdev.infoeste.repositories;
+
+import com.umdev.infoeste.repositories.projections.PriceBucketRow;
+import com.umdev.infoeste.repositories.projections.ProductSummary;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+public interface ProductListingRepository {
+
+    /**
+     * Lists product summaries in the given order. Null filters are left out of the query.
+     * With {@code afterId} set, returns the rows after that cursor position instead of using {@code offset}.
+     */
+    List<ProductSummary> findListing(UUID storeId, Integer categoryId, BigDecimal minPrice, BigDecimal maxPrice,
+                                     ProductSort sort, Object afterValue, UUID afterId, int offset, int limit);
+
+    /**
+     * Counts the products in each price range of width {@code bucketSize}, grouped in the database so only
+     * one row per non-empty range is returned. Null filters are left out of the query.
+     */
+    List<PriceBucketRow> findPriceBuckets(UUID storeId, Integer categoryId, BigDecimal minPrice, BigDecimal maxPrice,
+                                          BigDecimal bucketSize);
+}
@@ -0,0 +1,108 @@
+package com.umdev.infoeste.repositories;
+
+import com.umdev.infoeste.repositories.projections.PriceBucketRow;
+import com.umdev.infoeste.repositories.projections.ProductSummary;
+import com.umdev.infoeste.repositories.projections.ProductSummaryRow;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public class ProductListingRepositoryImpl implements ProductListingRepository {
+
+    private static final String SELECT = "SELECT new com.umdev.infoeste.repositories.projections.ProductSummaryRow(" +
+                                         "p.id, p.name, p.price, p.stock, p.category.id, s.name, p.imageKey, p.createdAt) " +
+                                         "FROM Product p JOIN p.store s";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // A consulta é montada por ordenação: só entram os filtros informados, para o MySQL usar o índice da ordenação
+    @Override
+    public List<ProductSummary> findListing(UUID storeId, Integer categoryId, BigDecimal minPrice, BigDecimal maxPrice,
+                                            ProductSort sort, Object afterValue, UUID afterId, int offset, int limit) {
+        List<String> predicates = filterPredicates(storeId, categoryId, minPrice, maxPrice);
+        if (afterId != null) {
+            predicates.add(sort.afterCursorPredicate());
+        }
+
+        String jpql = SELECT + where(predicates) + " ORDER BY " + sort.orderBy();
+
+        TypedQuery<ProductSummaryRow> query = entityManager.createQuery(jpql, ProductSummaryRow.class);
+        bindFilters(query, storeId, categoryId, minPrice, maxPrice);
+        if (afterId != null) {
+            query.setParameter("afterValue", afterValue);
+            query.setParameter("afterId", afterId);
+        }
+
+        return new ArrayList<>(query.setFirstResult(afterId != null ? 0 : offset)
+                .setMaxResults(limit)
+                .getResultList());
+    }
+
+    /*
+     * A largura da faixa vem da configuração e entra como literal: a expressão do SELECT e a do GROUP BY ficam
+     * idênticas, o que o MySQL exige com ONLY_FULL_GROUP_BY (dois parâmetros "?" não seriam reconhecidos como iguais).
+     */
+    @Override
+    public List<PriceBucketRow> findPriceBuckets(UUID storeId, Integer categoryId, BigDecimal minPrice,
+                                                 BigDecimal maxPrice, BigDecimal bucketSize) {
+        if (bucketSize.signum() <= 0) {
+            throw new IllegalArgumentException("Price bucket size must be positive");
+        }
+        String bucket = "FLOOR(p.price / " + bucketSize.toPlainString() + ")";
+        String jpql = "SELECT " + bucket + ", COUNT(p) FROM Product p"
+                + where(filterPredicates(storeId, categoryId, minPrice, maxPrice))
+                + " GROUP BY " + bucket;
+
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql, Object[].class);
+        bindFilters(query, storeId, categoryId, minPrice, maxPrice);
+
+        return query.getResultList().stream()
+                .map(row -> new PriceBucketRow(new BigDecimal(row[0].toString()).multiply(bucketSize),
+                        ((Number) row[1]).longValue()))
+                .toList();
+    }
+
+    private static List<String> filterPredicates(UUID storeId, Integer categoryId, BigDecimal minPrice,
+                                                 BigDecimal maxPrice) {
+        List<String> predicates = new ArrayList<>();
+        if (storeId != null) {
+            predicates.add("p.store.id = :storeId");
+        }
+        if (categoryId != null) {
+            predicates.add("p.category.id = :categoryId");
+        }
+        if (minPrice != null) {
+            predicates.add("p.price >= :minPrice");
+        }
+        if (maxPrice != null) {
+            predicates.add("p.price <= :maxPrice");
+        }
+        return predicates;
+    }
+
+    private static String where(List<String> predicates) {
+        return predicates.isEmpty() ? "" : " WHERE " + String.join(" AND ", predicates);
+    }
+
+    private static void bindFilters(TypedQuery<?> query, UUID storeId, Integer categoryId, BigDecimal minPrice,
+                                    BigDecimal maxPrice) {
+        if (storeId != null) {
+            query.setParameter("storeId", storeId);
+        }
+        if (categoryId != null) {
+            query.setParameter("categoryId", categoryId);
+        }
+        if (minPrice != null) {
+            query.setParameter("minPrice", minPrice);
+        }
+        if (maxPrice != null) {
+            query.setParameter("maxPrice", maxPrice);
+        }
+    }
+}
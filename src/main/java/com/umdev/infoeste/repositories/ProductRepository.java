@@ -1,7 +1,10 @@
 package com.umdev.infoeste.repositories;
 
 import com.umdev.infoeste.entities.Product;
-import org.springframework.data.domain.Page;
+import com.umdev.infoeste.repositories.projections.CategoryCountRow;
+import com.umdev.infoeste.repositories.projections.ProductImageView;
+import com.umdev.infoeste.repositories.projections.ProductSearchView;
+import com.umdev.infoeste.repositories.projections.ProductSummary;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -9,42 +12,70 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, UUID> {
-    
-    List<Product> findByStoreId(UUID storeId);
+public interface ProductRepository extends JpaRepository<Product, UUID>, ProductListingRepository {
+
+    String SUMMARY_SELECT = "SELECT p.id AS id, p.name AS name, p.price AS price, p.stock AS stock, " +
+                            "p.category.id AS categoryId, s.name AS storeName, p.imageKey AS imageKey, p.createdAt AS createdAt " +
+                            "FROM Product p JOIN p.store s ";
+
+    String SEARCH_SELECT = "SELECT p.id AS id, p.name AS name, p.description AS description, " +
+                           "c.name AS category, p.store.id AS storeId, c.id AS categoryId, p.price AS price, " +
+                           "p.createdAt AS createdAt " +
+                           "FROM Product p LEFT JOIN p.category c ";
+
+    String PRICE_FILTERS = "(:minPrice IS NULL OR p.price >= :minPrice) AND " +
+                           "(:maxPrice IS NULL OR p.price <= :maxPrice)";
+
+    String FILTERS = "(:categoryId IS NULL OR p.category.id = :categoryId) AND " + PRICE_FILTERS;
+
+    @Query(SUMMARY_SELECT + "WHERE s.id = :storeId")
+    List<ProductSummary> findSummariesByStoreId(@Param("storeId") UUID storeId);
     
     Optional<Product> findByIdAndStoreId(UUID productId, UUID storeId);
-    
-    @Query("SELECT p FROM Product p WHERE " +
-           "(:q IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :q, '%'))) AND " +
-           "(:category IS NULL OR LOWER(p.category) = LOWER(:category)) AND " +
-           "(:minPrice IS NULL OR p.price >= :minPrice) AND " +
-           "(:maxPrice IS NULL OR p.price <= :maxPrice)")
-    Page<Product> findProductsWithFilters(
-            @Param("q") String query,
-            @Param("category") String category,
+
+    @Query("SELECT p.imageKey AS imageKey, p.imageContentType AS imageContentType FROM Product p WHERE p.id = :id")
+    Optional<ProductImageView> findImageById(@Param("id") UUID productId);
+
+    boolean existsByImageKey(String imageKey);
+
+    @Query("SELECT DISTINCT p.imageKey FROM Product p WHERE p.imageKey IN :keys")
+    List<String> findImageKeysIn(@Param("keys") Collection<String> keys);
+
+    @Query(SEARCH_SELECT + "WHERE p.id = :id")
+    Optional<ProductSearchView> findSearchViewById(@Param("id") UUID productId);
+
+    @Query(SEARCH_SELECT + "WHERE (:afterId IS NULL OR p.id > :afterId) ORDER BY p.id")
+    List<ProductSearchView> findSearchViewsAfter(@Param("afterId") UUID afterId, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE p.id IN :ids")
+    List<ProductSummary> findSummariesByIds(@Param("ids") Collection<UUID> ids);
+
+    @Query("SELECT p.category.id AS categoryId, COUNT(p) AS productCount FROM Product p " +
+           "WHERE (:storeId IS NULL OR p.store.id = :storeId) AND " + PRICE_FILTERS + " GROUP BY p.category.id")
+    List<CategoryCountRow> findCategoryCounts(
+            @Param("storeId") UUID storeId,
             @Param("minPrice") BigDecimal minPrice,
-            @Param("maxPrice") BigDecimal maxPrice,
-            Pageable pageable
+            @Param("maxPrice") BigDecimal maxPrice
     );
-    
-    @Query("SELECT p FROM Product p WHERE " +
-           "p.store.id = :storeId AND " +
-           "(:q IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :q, '%'))) AND " +
-           "(:category IS NULL OR LOWER(p.category) = LOWER(:category)) AND " +
-           "(:minPrice IS NULL OR p.price >= :minPrice) AND " +
-           "(:maxPrice IS NULL OR p.price <= :maxPrice)")
-    Page<Product> findProductsByStoreWithFilters(
+
+    @Query("SELECT COUNT(p) FROM Product p WHERE " + FILTERS)
+    long countProductsWithFilters(
+            @Param("categoryId") Integer categoryId,
+            @Param("minPrice") BigDecimal minPrice,
+            @Param("maxPrice") BigDecimal maxPrice
+    );
+
+    @Query("SELECT COUNT(p) FROM Product p WHERE p.store.id = :storeId AND " + FILTERS)
+    long countProductsByStoreWithFilters(
             @Param("storeId") UUID storeId,
-            @Param("q") String query,
-            @Param("category") String category,
+            @Param("categoryId") Integer categoryId,
             @Param("minPrice") BigDecimal minPrice,
-            @Param("maxPrice") BigDecimal maxPrice,
-            Pageable pageable
+            @Param("maxPrice") BigDecimal maxPrice
     );
 }
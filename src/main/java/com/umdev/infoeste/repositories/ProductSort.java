@@ -0,0 +1,122 @@
+package com.umdev.infoeste.repositories;
+
+import com.umdev.infoeste.repositories.projections.ProductSortKey;
+import com.umdev.infoeste.utils.text.TextNormalizer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * Orderings available for product listings. Each one sorts by a single column plus the id as
+ * tiebreaker and has a matching composite index, so pages are read as index range scans.
+ */
+public enum ProductSort {
+    NEWEST("newest", "p.createdAt", false),
+    PRICE_ASC("price_asc", "p.price", true),
+    PRICE_DESC("price_desc", "p.price", false),
+    NAME("name", "p.name", true);
+
+    private final String param;
+    private final String path;
+    private final boolean ascending;
+
+    ProductSort(String param, String path, boolean ascending) {
+        this.param = param;
+        this.path = path;
+        this.ascending = ascending;
+    }
+
+    public String getParam() {
+        return param;
+    }
+
+    public String orderBy() {
+        String direction = ascending ? " ASC" : " DESC";
+        return path + direction + ", p.id" + direction;
+    }
+
+    // Linhas depois do cursor na mesma direção da ordenação: (chave, id) estritamente maior ou menor
+    public String afterCursorPredicate() {
+        String operator = ascending ? " > " : " < ";
+        return "(" + path + operator + ":afterValue OR (" + path + " = :afterValue AND p.id" + operator + ":afterId))";
+    }
+
+    public String cursorValue(ProductSortKey product) {
+        return switch (this) {
+            case NEWEST -> product.getCreatedAt().toString();
+            case PRICE_ASC, PRICE_DESC -> product.getPrice().toPlainString();
+            case NAME -> product.getName();
+        };
+    }
+
+    public Object parseCursorValue(String value) {
+        try {
+            return switch (this) {
+                case NEWEST -> LocalDateTime.parse(value);
+                case PRICE_ASC, PRICE_DESC -> new BigDecimal(value);
+                case NAME -> value;
+            };
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public Comparator<ProductSortKey> comparator() {
+        Comparator<ProductSortKey> byKey = switch (this) {
+            case NEWEST -> Comparator.comparing(ProductSortKey::getCreatedAt);
+            case PRICE_ASC, PRICE_DESC -> Comparator.comparing(ProductSortKey::getPrice);
+            // Sem caixa nem acentos, como a collation do MySQL ordena p.name nas listagens sem busca
+            case NAME -> Comparator.comparing((ProductSortKey key) -> TextNormalizer.fold(key.getName()));
+        };
+        Comparator<ProductSortKey> withId = byKey.thenComparing(ProductSortKey::getId);
+        return ascending ? withId : withId.reversed();
+    }
+
+    // Posição de um cursor como chave só com o campo desta ordenação, para localizá-lo numa lista já ordenada
+    public ProductSortKey cursorKey(String value, UUID id) {
+        Object parsed = parseCursorValue(value);
+        return new CursorKey(id,
+                this == NAME ? (String) parsed : null,
+                this == PRICE_ASC || this == PRICE_DESC ? (BigDecimal) parsed : null,
+                this == NEWEST ? (LocalDateTime) parsed : null);
+    }
+
+    private record CursorKey(UUID id, String name, BigDecimal price, LocalDateTime createdAt)
+            implements ProductSortKey {
+
+        @Override
+        public UUID getId() {
+            return id;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public BigDecimal getPrice() {
+            return price;
+        }
+
+        @Override
+        public LocalDateTime getCreatedAt() {
+            return createdAt;
+        }
+    }
+
+    // Parâmetro vazio significa "ordenação padrão": mais recentes nas listagens, relevância nas buscas
+    public static ProductSort fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        for (ProductSort sort : values()) {
+            if (sort.param.equalsIgnoreCase(value.trim())) {
+                return sort;
+            }
+        }
+        throw new IllegalArgumentException("Invalid sort: " + value);
+    }
+}
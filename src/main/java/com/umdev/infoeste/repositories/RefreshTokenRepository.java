@@ -0,0 +1,41 @@
+package com.umdev.infoeste.repositories;
+
+import com.umdev.infoeste.entities.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID> {
+
+    @Query("SELECT r FROM RefreshToken r JOIN FETCH r.store WHERE r.tokenHash = :tokenHash")
+    Optional<RefreshToken> findWithStoreByTokenHash(@Param("tokenHash") String tokenHash);
+
+    // Retorna quantas linhas mudaram: só quem marca o token pode usá-lo, mesmo com duas renovações simultâneas
+    @Transactional
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.used = true WHERE r.id = :id AND r.used = false")
+    int markUsed(@Param("id") UUID id);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.familyId = :familyId")
+    int deleteByFamilyId(@Param("familyId") UUID familyId);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.store.id = :storeId")
+    int deleteByStoreId(@Param("storeId") UUID storeId);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.store.id = :storeId AND r.expiresAt < :now")
+    int deleteExpiredByStoreId(@Param("storeId") UUID storeId, @Param("now") Instant now);
+}
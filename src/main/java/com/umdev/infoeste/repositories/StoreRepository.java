@@ -1,6 +1,7 @@
 package com.umdev.infoeste.repositories;
 
 import com.umdev.infoeste.entities.Store;
+import com.umdev.infoeste.repositories.projections.StoreSearchView;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -8,6 +9,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -17,8 +20,26 @@ public interface StoreRepository extends JpaRepository<Store, UUID> {
     
     boolean existsByEmail(String email);
     
+    String SEARCH_SELECT = "SELECT s.id AS id, s.name AS name, s.city AS city FROM Store s ";
+
+    String NEWEST_FIRST = " ORDER BY s.createdAt DESC, s.id DESC";
+
+    @Query(SEARCH_SELECT + "WHERE s.id = :id")
+    Optional<StoreSearchView> findSearchViewById(@Param("id") UUID storeId);
+
+    @Query(SEARCH_SELECT + "WHERE (:afterId IS NULL OR s.id > :afterId) ORDER BY s.id")
+    List<StoreSearchView> findSearchViewsAfter(@Param("afterId") UUID afterId, Pageable pageable);
+
+    @Query(value = "SELECT s FROM Store s" + NEWEST_FIRST,
+           countQuery = "SELECT COUNT(s) FROM Store s")
+    Page<Store> findStoresNewestFirst(Pageable pageable);
+
     @Query("SELECT s FROM Store s WHERE " +
-           "(:q IS NULL OR LOWER(s.name) LIKE LOWER(CONCAT('%', :q, '%')) OR " +
-           "LOWER(s.city) LIKE LOWER(CONCAT('%', :q, '%')))")
-    Page<Store> findStoresWithSearch(@Param("q") String query, Pageable pageable);
+           "(:cursorCreatedAt IS NULL OR s.createdAt < :cursorCreatedAt OR " +
+           "(s.createdAt = :cursorCreatedAt AND s.id < :cursorId))" + NEWEST_FIRST)
+    List<Store> findStoresAfterCursor(
+            @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+            @Param("cursorId") UUID cursorId,
+            Pageable pageable
+    );
 }
@@ -0,0 +1,7 @@
+package com.umdev.infoeste.repositories.projections;
+
+public interface CategoryCountRow {
+    Integer getCategoryId();
+
+    long getProductCount();
+}
@@ -0,0 +1,10 @@
+package com.umdev.infoeste.repositories.projections;
+
+import java.math.BigDecimal;
+
+// Faixa do histograma de preços já agregada no banco: min é o início da faixa
+public record PriceBucketRow(
+        BigDecimal min,
+        long productCount
+) {
+}
@@ -0,0 +1,23 @@
+package com.umdev.infoeste.repositories.projections;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface ProductSearchView {
+    UUID getId();
+
+    String getName();
+
+    String getDescription();
+
+    String getCategory();
+
+    UUID getStoreId();
+
+    Integer getCategoryId();
+
+    BigDecimal getPrice();
+
+    LocalDateTime getCreatedAt();
+}
@@ -0,0 +1,16 @@
+package com.umdev.infoeste.repositories.projections;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Campos usados pelas ordenações de ProductSort, comuns às linhas do banco e aos resultados da busca
+public interface ProductSortKey {
+    UUID getId();
+
+    String getName();
+
+    BigDecimal getPrice();
+
+    LocalDateTime getCreatedAt();
+}
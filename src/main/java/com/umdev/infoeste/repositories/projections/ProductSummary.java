@@ -0,0 +1,11 @@
+package com.umdev.infoeste.repositories.projections;
+
+public interface ProductSummary extends ProductSortKey {
+    Integer getStock();
+
+    Integer getCategoryId();
+
+    String getStoreName();
+
+    String getImageKey();
+}
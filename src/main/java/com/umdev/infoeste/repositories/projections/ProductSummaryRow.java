@@ -0,0 +1,58 @@
+package com.umdev.infoeste.repositories.projections;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Implementação de ProductSummary para consultas montadas com "SELECT new", fora do @Query do Spring Data
+public record ProductSummaryRow(
+        UUID id,
+        String name,
+        BigDecimal price,
+        Integer stock,
+        Integer categoryId,
+        String storeName,
+        String imageKey,
+        LocalDateTime createdAt
+) implements ProductSummary {
+
+    @Override
+    public UUID getId() {
+        return id;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    @Override
+    public Integer getStock() {
+        return stock;
+    }
+
+    @Override
+    public Integer getCategoryId() {
+        return categoryId;
+    }
+
+    @Override
+    public String getStoreName() {
+        return storeName;
+    }
+
+    @Override
+    public String getImageKey() {
+        return imageKey;
+    }
+
+    @Override
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
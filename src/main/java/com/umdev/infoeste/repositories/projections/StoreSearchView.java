@@ -0,0 +1,11 @@
+package com.umdev.infoeste.repositories.projections;
+
+import java.util.UUID;
+
+public interface StoreSearchView {
+    UUID getId();
+
+    String getName();
+
+    String getCity();
+}
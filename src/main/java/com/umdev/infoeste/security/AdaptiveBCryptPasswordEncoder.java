@@ -0,0 +1,83 @@
+package com.umdev.infoeste.security;
+
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt encoder whose cost is calibrated on the running machine. Each hash records its own cost,
+ * so hashes made with another cost still verify; {@link #upgradeEncoding} flags them to be rehashed
+ * with the current cost on the next successful login. Hashes below the current cost are always
+ * upgraded, but a hash is only downgraded when it is more than {@value #DOWNGRADE_TOLERANCE} step
+ * above it, so calibration jitter between restarts does not rehash every password back and forth.
+ */
+public class AdaptiveBCryptPasswordEncoder implements PasswordEncoder {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$");
+    private static final String CALIBRATION_PASSWORD = "calibration-password";
+    private static final int DOWNGRADE_TOLERANCE = 1;
+
+    private final BCryptPasswordEncoder delegate;
+    private final int cost;
+
+    public AdaptiveBCryptPasswordEncoder(int cost) {
+        this.delegate = new BCryptPasswordEncoder(cost);
+        this.cost = cost;
+    }
+
+    /**
+     * Picks the cost, between {@code minCost} and {@code maxCost}, whose hash time is closest to
+     * {@code target}. Each extra cost unit doubles the work, so the search stops as soon as the
+     * next cost would land further from the target than the current one.
+     */
+    public static int calibrate(Duration target, int minCost, int maxCost) {
+        long targetNanos = target.toNanos();
+        // Primeira execução aquece o JIT e não entra na medição
+        measure(minCost);
+
+        int cost = minCost;
+        long nanos = measure(cost);
+        while (cost < maxCost && Math.abs(2 * nanos - targetNanos) < Math.abs(nanos - targetNanos)) {
+            cost++;
+            nanos = measure(cost);
+        }
+        return cost;
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return delegate.matches(rawPassword, encodedPassword);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        if (!matcher.find()) {
+            return false;
+        }
+        int hashCost = Integer.parseInt(matcher.group(1));
+        return hashCost < cost || hashCost > cost + DOWNGRADE_TOLERANCE;
+    }
+
+    private static long measure(int cost) {
+        long start = System.nanoTime();
+        BCrypt.hashpw(CALIBRATION_PASSWORD, BCrypt.gensalt(cost));
+        return System.nanoTime() - start;
+    }
+}
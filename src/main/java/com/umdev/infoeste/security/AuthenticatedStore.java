@@ -0,0 +1,28 @@
+package com.umdev.infoeste.security;
+
+import com.umdev.infoeste.entities.UserRole;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Principal of an authenticated request, built from the JWT claims. Services get the store id
+ * from here instead of looking the store up by email.
+ */
+public record AuthenticatedStore(
+        UUID storeId,
+        String email,
+        UserRole role
+) implements AuthenticatedPrincipal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    public List<GrantedAuthority> authorities() {
+        return role.authorities();
+    }
+}
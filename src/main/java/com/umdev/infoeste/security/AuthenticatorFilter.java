@@ -12,7 +12,6 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Collections;
 
 @Component
 public class AuthenticatorFilter extends OncePerRequestFilter {
@@ -38,11 +37,11 @@ public class AuthenticatorFilter extends OncePerRequestFilter {
         }
 
         try {
-            String user = jwtService.getAuthUser(request);
+            AuthenticatedStore user = jwtService.getAuthUser(request);
             if (user != null) {
                 Authentication authentication =
                         new UsernamePasswordAuthenticationToken(user, null,
-                                Collections.emptyList());
+                                user.authorities());
 
                 SecurityContextHolder.getContext()
                         .setAuthentication(authentication);
@@ -0,0 +1,47 @@
+package com.umdev.infoeste.security;
+
+import com.umdev.infoeste.entities.Store;
+import com.umdev.infoeste.repositories.StoreRepository;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+import java.util.Optional;
+
+/**
+ * Identity of the store behind the current request. The id comes from the JWT principal without
+ * touching the database, and the entity is only loaded, at most once per request, when a caller
+ * actually needs it.
+ */
+@Component
+@RequestScope
+public class CurrentStoreContext {
+
+    private final StoreRepository storeRepository;
+    private Store store;
+
+    public CurrentStoreContext(StoreRepository storeRepository) {
+        this.storeRepository = storeRepository;
+    }
+
+    public Optional<AuthenticatedStore> principal() {
+        if (store != null) {
+            return Optional.of(new AuthenticatedStore(store.getId(), store.getEmail(), store.getRole()));
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedStore principal) {
+            return Optional.of(principal);
+        }
+        return Optional.empty();
+    }
+
+    public Optional<Store> store() {
+        if (store == null) {
+            store = principal()
+                    .flatMap(principal -> storeRepository.findById(principal.storeId()))
+                    .orElse(null);
+        }
+        return Optional.ofNullable(store);
+    }
+}
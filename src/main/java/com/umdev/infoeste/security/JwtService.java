@@ -1,51 +1,99 @@
 package com.umdev.infoeste.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.umdev.infoeste.entities.Store;
+import com.umdev.infoeste.entities.UserRole;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.Date;
+import java.util.UUID;
 
 @Component
 public class JwtService {
     private final long EXPIRATION_TIME;
     private static final String TOKEN_PREFIX = "Bearer ";
+    private static final String STORE_ID_CLAIM = "storeId";
+    private static final String ROLE_CLAIM = "role";
+
+    /**
+     * A token whose signature and claims were already checked, kept until its {@code exp}.
+     */
+    public record VerifiedToken(AuthenticatedStore store, Instant expiresAt) {
+    }
 
     private final SecretKey key;
+    // O parser é imutável e thread-safe: montado uma vez em vez de a cada requisição
+    private final JwtParser parser;
+    private final Cache<String, VerifiedToken> verifiedTokens;
 
     public JwtService(@Value("${jwt.expiration}") long expirationTime,
-                      @Value("${jwt.secret}") String secret) {
+                      @Value("${jwt.secret}") String secret,
+                      @Qualifier("verifiedTokenCache") Cache<String, VerifiedToken> verifiedTokens) {
         EXPIRATION_TIME = expirationTime;
         key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser().verifyWith(key).build();
+        this.verifiedTokens = verifiedTokens;
+    }
+
+    public String getToken(Store store) {
+        return getToken(new AuthenticatedStore(store.getId(), store.getEmail(), store.getRole()));
     }
 
-    public String getToken(String username) {
+    public String getToken(AuthenticatedStore store) {
         return Jwts.builder()
-                .subject(username)
+                .subject(store.email())
+                .claim(STORE_ID_CLAIM, store.storeId().toString())
+                .claim(ROLE_CLAIM, store.role().name())
                 .issuedAt(new Date())
                 .expiration(new Date((new Date()).getTime() + EXPIRATION_TIME))
                 .signWith(key)
                 .compact();
     }
 
-    public String getAuthUser(HttpServletRequest request) {
+    public AuthenticatedStore getAuthUser(HttpServletRequest request) {
         String token = request
                 .getHeader(HttpHeaders.AUTHORIZATION);
 
         if (token != null) {
-            return Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(token.replace(TOKEN_PREFIX, ""))
-                    .getPayload()
-                    .getSubject();
+            String jws = token.replace(TOKEN_PREFIX, "");
+            // Token inválido lança exceção e não entra no cache; o válido só é verificado de novo depois de expirar
+            return verifiedTokens.get(TokenHashes.sha256(jws), hash -> verify(jws)).store();
         }
         return null;
     }
 
+    private VerifiedToken verify(String jws) {
+        Claims claims = parser.parseSignedClaims(jws).getPayload();
+        if (claims.getExpiration() == null) {
+            throw new JwtException("Token without expiration");
+        }
+        return new VerifiedToken(toPrincipal(claims), claims.getExpiration().toInstant());
+    }
+
+    // Tokens emitidos antes das claims de loja e papel não são aceitos: o cliente faz login de novo
+    private static AuthenticatedStore toPrincipal(Claims claims) {
+        String storeId = claims.get(STORE_ID_CLAIM, String.class);
+        String role = claims.get(ROLE_CLAIM, String.class);
+        if (storeId == null || role == null || claims.getSubject() == null) {
+            throw new JwtException("Token without store claims");
+        }
+        try {
+            return new AuthenticatedStore(UUID.fromString(storeId), claims.getSubject(), UserRole.valueOf(role));
+        } catch (IllegalArgumentException e) {
+            throw new JwtException("Invalid store claims", e);
+        }
+    }
+
 }
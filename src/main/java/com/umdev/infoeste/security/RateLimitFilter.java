@@ -0,0 +1,101 @@
+package com.umdev.infoeste.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.umdev.infoeste.utils.handler.ExceptionResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Throttles the expensive routes (login, register and image uploads) before authentication runs and
+ * before the request body is read, answering 429 with {@code Retry-After} when a bucket is empty.
+ * Rules keyed by the login email need the body and are applied by the login itself.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final List<RateLimitRule> rules;
+    private final JwtService jwtService;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+
+    public RateLimitFilter(List<RateLimitRule> rules, JwtService jwtService, MeterRegistry meterRegistry,
+                           ObjectMapper objectMapper, @Value("${rate-limit.enabled}") boolean enabled) {
+        this.rules = rules;
+        this.jwtService = jwtService;
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || "OPTIONS".equalsIgnoreCase(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        for (RateLimitRule rule : rules) {
+            if (rule.getKeyType() == RateLimitRule.KeyType.EMAIL || !rule.matches(request)) {
+                continue;
+            }
+            Duration retryAfter = rule.tryAcquire(resolveKey(rule, request));
+            if (!retryAfter.isZero()) {
+                reject(rule, request, response, retryAfter);
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private String resolveKey(RateLimitRule rule, HttpServletRequest request) {
+        if (rule.getKeyType() == RateLimitRule.KeyType.STORE) {
+            String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+            if (header != null && header.startsWith("Bearer ")) {
+                try {
+                    // Verificação barata: o token válido já está no cache de tokens verificados
+                    AuthenticatedStore store = jwtService.getAuthUser(request);
+                    if (store != null) {
+                        return "store:" + store.storeId();
+                    }
+                } catch (Exception e) {
+                    // Token inválido é tratado depois pelo AuthenticatorFilter; aqui conta pelo IP
+                }
+            }
+        }
+        // Com forward-headers-strategy NATIVE o RemoteIpValve só aceita o X-Forwarded-For vindo de proxies internos
+        // e o remoteAddr é o primeiro salto não confiável da direita para a esquerda, que o cliente não forja
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void reject(RateLimitRule rule, HttpServletRequest request, HttpServletResponse response,
+                        Duration retryAfter) throws IOException {
+        meterRegistry.counter("rate.limit.rejected", "rule", rule.getName()).increment();
+        logger.warn("Rate limit '" + rule.getName() + "' exceeded for " + request.getRemoteAddr()
+                + " on " + request.getMethod() + " " + request.getRequestURI());
+
+        // Arredonda para cima: o cliente nunca volta antes do próximo token
+        long seconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(seconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+        ExceptionResponse body = ExceptionResponse.of("Too many requests. Please try again later.",
+                new ServletWebRequest(request), HttpStatus.TOO_MANY_REQUESTS);
+        objectMapper.writeValue(response.getWriter(), body);
+    }
+}
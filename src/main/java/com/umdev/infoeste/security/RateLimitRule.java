@@ -0,0 +1,91 @@
+package com.umdev.infoeste.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket of {@code capacity} requests per {@code period} for the requests matched by one route,
+ * with one bucket per client IP, per store or per login email. Each bucket is a single {@link AtomicLong} updated with
+ * compare-and-set, so concurrent requests never block each other.
+ */
+public class RateLimitRule {
+
+    public enum KeyType {
+        IP,
+        // Requisições sem token válido caem no bucket do IP
+        STORE,
+        // O email está no corpo, que o filtro não lê: quem aplica a regra é o StoreService
+        EMAIL
+    }
+
+    private final String name;
+    private final RequestMatcher matcher;
+    private final KeyType keyType;
+    private final long periodNanos;
+    private final long intervalNanos;
+    private final Cache<String, AtomicLong> buckets;
+    private final LongSupplier clock;
+
+    public RateLimitRule(String name, RequestMatcher matcher, KeyType keyType, int capacity, Duration period,
+                         long maxKeys) {
+        this(name, matcher, keyType, capacity, period, maxKeys, System::nanoTime);
+    }
+
+    RateLimitRule(String name, RequestMatcher matcher, KeyType keyType, int capacity, Duration period,
+                  long maxKeys, LongSupplier clock) {
+        if (capacity <= 0 || period.isZero() || period.isNegative()) {
+            throw new IllegalArgumentException("Rate limit '" + name + "' needs a positive capacity and period");
+        }
+        this.name = name;
+        this.matcher = matcher;
+        this.keyType = keyType;
+        this.periodNanos = period.toNanos();
+        this.intervalNanos = periodNanos / capacity;
+        // Um bucket parado por um período inteiro já está cheio de novo: descartá-lo não muda o limite
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(period)
+                .maximumSize(maxKeys)
+                .build();
+        this.clock = clock;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public KeyType getKeyType() {
+        return keyType;
+    }
+
+    public boolean matches(HttpServletRequest request) {
+        return matcher.matches(request);
+    }
+
+    /**
+     * Takes one token from the bucket of {@code key}.
+     *
+     * @return {@link Duration#ZERO} when the request may proceed, otherwise how long until the next token
+     */
+    public Duration tryAcquire(String key) {
+        long now = clock.getAsLong();
+        AtomicLong bucket = buckets.get(key, k -> new AtomicLong(now));
+
+        // O bucket guarda o instante em que ficaria vazio (GCRA): cada requisição o empurra um intervalo para frente
+        while (true) {
+            long emptyAt = bucket.get();
+            long next = Math.max(emptyAt, now) + intervalNanos;
+            if (next - now > periodNanos) {
+                return Duration.ofNanos(next - now - periodNanos);
+            }
+            if (bucket.compareAndSet(emptyAt, next)) {
+                return Duration.ZERO;
+            }
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.umdev.infoeste.security;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -9,7 +12,6 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -17,18 +19,24 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.time.Duration;
 import java.util.Arrays;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(SecurityConfig.class);
     
     private final AuthenticatorFilter authenticatorFilter;
+    private final RateLimitFilter rateLimitFilter;
     private final AuthEntryPoint exceptionHandling;
 
     public SecurityConfig(AuthenticatorFilter authenticatorFilter, 
+                         RateLimitFilter rateLimitFilter,
                          AuthEntryPoint exceptionHandling) {
         this.authenticatorFilter = authenticatorFilter;
+        this.rateLimitFilter = rateLimitFilter;
         this.exceptionHandling = exceptionHandling;
     }
 
@@ -43,12 +51,18 @@ public class SecurityConfig {
                         .requestMatchers("/swagger-ui.html", "/swagger-ui/**", "/swagger-resources/**", 
                                        "/v3/api-docs/**", "/v3/api-docs", "/swagger-ui/index.html", "/webjars/**").permitAll()
                         .requestMatchers("/error").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
+                        // Métricas e caches (inclusive o DELETE que esvazia os de tokens) não ficam abertos a qualquer loja
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.POST, "/v1/stores/login").permitAll()
+                        .requestMatchers(HttpMethod.POST, "/v1/stores/refresh").permitAll()
                         .requestMatchers(HttpMethod.POST, "/v1/stores/register").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/v1/products/my", "/v1/stores/me").authenticated()
                         .requestMatchers(HttpMethod.GET, "/v1/products/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/v1/stores/**").permitAll()
                         .anyRequest().authenticated())
                 .addFilterBefore(authenticatorFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(rateLimitFilter, AuthenticatorFilter.class)
                 .exceptionHandling(exceptionHandling -> exceptionHandling
                         .authenticationEntryPoint(this.exceptionHandling));
         
@@ -61,8 +75,15 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${security.password-hashing.target-duration}") Duration targetDuration,
+            @Value("${security.password-hashing.min-cost}") int minCost,
+            @Value("${security.password-hashing.max-cost}") int maxCost) {
+        long start = System.nanoTime();
+        int cost = AdaptiveBCryptPasswordEncoder.calibrate(targetDuration, minCost, maxCost);
+        logger.info("BCrypt cost calibrated to {} for a target of {} ms (calibration took {} ms)",
+                cost, targetDuration.toMillis(), (System.nanoTime() - start) / 1_000_000);
+        return new AdaptiveBCryptPasswordEncoder(cost);
     }
 
     @Bean
@@ -0,0 +1,142 @@
+package com.umdev.infoeste.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.umdev.infoeste.entities.Category;
+import com.umdev.infoeste.repositories.CategoryRepository;
+import com.umdev.infoeste.utils.text.TextNormalizer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of the categories table. Products store only the integer category id;
+ * names are resolved here instead of joining the table on every listing. The startup snapshot
+ * is not assumed complete: a name or id it does not know is looked up once in the table, so
+ * categories created by another instance are picked up on first use. Names that are not in the
+ * table either are remembered for a short while, so filtering on made-up categories does not
+ * reach the database on every request.
+ */
+@Component
+public class CategoryDictionary {
+
+    public static final int MAX_NAME_LENGTH = 100;
+    private static final int MAX_UNKNOWN_NAMES = 10_000;
+
+    private final Map<String, Integer> idsByKey = new ConcurrentHashMap<>();
+    private final Map<Integer, String> namesById = new ConcurrentHashMap<>();
+
+    private final Cache<String, Boolean> unknownKeys;
+
+    private final CategoryRepository categoryRepository;
+    private final Logger categoryLogger = LoggerFactory.getLogger(CategoryDictionary.class);
+
+    public CategoryDictionary(CategoryRepository categoryRepository,
+                              @Value("${catalog.categories.unknown-name-ttl}") Duration unknownNameTtl) {
+        this.categoryRepository = categoryRepository;
+        // Tamanho limitado: nomes aleatórios enviados por clientes não fazem o mapa crescer sem fim
+        this.unknownKeys = Caffeine.newBuilder()
+                .expireAfterWrite(unknownNameTtl)
+                .maximumSize(MAX_UNKNOWN_NAMES)
+                .build();
+    }
+
+    // Carregado na criação do bean para estar pronto antes dos índices de busca e da migração de categorias
+    @PostConstruct
+    public void load() {
+        categoryRepository.findAll().forEach(this::register);
+        categoryLogger.info("Category dictionary loaded with {} categories", namesById.size());
+    }
+
+    public Optional<Integer> findId(String name) {
+        String key = TextNormalizer.fold(name);
+        if (key == null) {
+            return Optional.empty();
+        }
+        Integer id = idsByKey.get(key);
+        if (id != null) {
+            return Optional.of(id);
+        }
+        if (unknownKeys.getIfPresent(key) != null) {
+            return Optional.empty();
+        }
+        Optional<Integer> found = categoryRepository.findByNameKey(key).map(this::register);
+        if (found.isEmpty()) {
+            unknownKeys.put(key, Boolean.TRUE);
+        }
+        return found;
+    }
+
+    public String nameOf(Integer id) {
+        if (id == null) {
+            return null;
+        }
+        String name = namesById.get(id);
+        if (name != null) {
+            return name;
+        }
+        return categoryRepository.findById(id)
+                .map(category -> {
+                    register(category);
+                    return category.getName();
+                })
+                .orElse(null);
+    }
+
+    /**
+     * Returns the category with the given name, creating it on first use.
+     * Names that differ only in case or accents resolve to the same category.
+     */
+    public Category resolve(String name) {
+        String key = TextNormalizer.fold(name);
+        if (key == null || key.isEmpty()) {
+            return null;
+        }
+        if (name.strip().length() > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("Category name must be at most " + MAX_NAME_LENGTH + " characters");
+        }
+
+        Integer id = idsByKey.get(key);
+        if (id == null) {
+            id = create(name.strip(), key);
+        }
+        return categoryRepository.getReferenceById(id);
+    }
+
+    private synchronized Integer create(String name, String key) {
+        Integer id = idsByKey.get(key);
+        if (id != null) {
+            return id;
+        }
+
+        Optional<Category> existing = categoryRepository.findByNameKey(key);
+        if (existing.isPresent()) {
+            return register(existing.get());
+        }
+
+        Category category;
+        try {
+            category = categoryRepository.save(new Category(null, name, key));
+            categoryLogger.info("Category '{}' created with id {}", name, category.getId());
+        } catch (DataIntegrityViolationException e) {
+            // Outra instância da aplicação criou a mesma categoria ao mesmo tempo
+            category = categoryRepository.findByNameKey(key).orElseThrow(() -> e);
+        }
+        return register(category);
+    }
+
+    private Integer register(Category category) {
+        idsByKey.put(category.getNameKey(), category.getId());
+        unknownKeys.invalidate(category.getNameKey());
+        namesById.put(category.getId(), category.getName());
+        return category.getId();
+    }
+}
@@ -0,0 +1,85 @@
+package com.umdev.infoeste.services;
+
+import com.umdev.infoeste.entities.Category;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Moves the free-text {@code products.category} column into the categories table. The column itself
+ * is only dropped when {@code catalog.categories.drop-legacy-column} is set, so the previous build can
+ * still be rolled back to: while it is kept, {@link #syncLegacyColumn} copies the category name of every
+ * product this build writes back into it, and rows the previous build writes meanwhile are migrated on
+ * the next startup.
+ */
+@Component
+public class CategoryMigration {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CategoryDictionary categoryDictionary;
+    private final boolean dropLegacyColumn;
+    private volatile boolean legacyColumnKept;
+    private final Logger migrationLogger = LoggerFactory.getLogger(CategoryMigration.class);
+
+    public CategoryMigration(JdbcTemplate jdbcTemplate, CategoryDictionary categoryDictionary,
+                             @Value("${catalog.categories.drop-legacy-column}") boolean dropLegacyColumn) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.categoryDictionary = categoryDictionary;
+        this.dropLegacyColumn = dropLegacyColumn;
+    }
+
+    // Roda na criação do bean, antes de os índices de busca lerem as categorias dos produtos
+    @PostConstruct
+    public void migrate() {
+        Integer legacyColumns = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.columns " +
+                "WHERE table_schema = DATABASE() AND table_name = 'products' AND column_name = 'category'",
+                Integer.class);
+        if (legacyColumns == null || legacyColumns == 0) {
+            return;
+        }
+
+        List<String> names = jdbcTemplate.queryForList(
+                "SELECT DISTINCT category FROM products WHERE category IS NOT NULL AND category_id IS NULL",
+                String.class);
+
+        for (String name : names) {
+            String trimmed = name.strip();
+            Category category = categoryDictionary.resolve(trimmed.length() > CategoryDictionary.MAX_NAME_LENGTH
+                    ? trimmed.substring(0, CategoryDictionary.MAX_NAME_LENGTH) : trimmed);
+            if (category != null) {
+                jdbcTemplate.update("UPDATE products SET category_id = ? WHERE category = ? AND category_id IS NULL",
+                        category.getId(), name);
+            }
+        }
+        if (!names.isEmpty()) {
+            migrationLogger.info("Migrated {} distinct legacy categories", names.size());
+        }
+
+        if (!dropLegacyColumn) {
+            legacyColumnKept = true;
+            migrationLogger.info("Legacy category column kept (catalog.categories.drop-legacy-column is off)");
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE products DROP COLUMN category");
+        migrationLogger.info("Legacy category column dropped");
+    }
+
+    /**
+     * Writes the name of {@code category} into the legacy column of its products whose copy is
+     * missing or stale, so a rollback to the previous build shows the same categories.
+     */
+    public void syncLegacyColumn(Category category) {
+        if (!legacyColumnKept || category == null) {
+            return;
+        }
+        // Pela categoria e não pelo id do produto: só as linhas dela com o texto diferente são tocadas
+        jdbcTemplate.update("UPDATE products p JOIN categories c ON c.id = p.category_id SET p.category = c.name " +
+                "WHERE p.category_id = ? AND NOT (p.category <=> c.name)", category.getId());
+    }
+}
@@ -0,0 +1,97 @@
+package com.umdev.infoeste.services;
+
+import com.umdev.infoeste.utils.exceptions.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Runs BCrypt hashing and password checks on a small dedicated pool instead of the request
+ * threads, so a burst of logins cannot starve catalog reads. When the queue is full the call
+ * fails right away with {@link ServiceBusyException}.
+ */
+@Service
+public class PasswordHashingService {
+
+    private final ThreadPoolTaskExecutor executor;
+    private final PasswordEncoder passwordEncoder;
+    private final AuthenticationManager authenticationManager;
+    private final Duration retryAfter;
+    private final Timer encodeTimer;
+    private final Timer verifyTimer;
+    private final Counter rejections;
+    private final Logger hashingLogger = LoggerFactory.getLogger(PasswordHashingService.class);
+
+    public PasswordHashingService(@Qualifier("passwordHashingExecutor") ThreadPoolTaskExecutor executor,
+                                  PasswordEncoder passwordEncoder,
+                                  AuthenticationManager authenticationManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${security.password-hashing.retry-after}") Duration retryAfter) {
+        this.executor = executor;
+        this.passwordEncoder = passwordEncoder;
+        this.authenticationManager = authenticationManager;
+        this.retryAfter = retryAfter;
+
+        this.encodeTimer = Timer.builder("password.hashing.duration")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.verifyTimer = Timer.builder("password.hashing.duration")
+                .tag("operation", "verify")
+                .register(meterRegistry);
+        this.rejections = Counter.builder("password.hashing.rejected")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.queue.size", executor, ThreadPoolTaskExecutor::getQueueSize)
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .register(meterRegistry);
+    }
+
+    public String encode(String rawPassword) {
+        return run(() -> encodeTimer.record(() -> passwordEncoder.encode(rawPassword)));
+    }
+
+    // A autenticação inteira vai para o pool porque a verificação do BCrypt acontece dentro do AuthenticationManager
+    public Authentication authenticate(Authentication request) {
+        return run(() -> verifyTimer.record(() -> authenticationManager.authenticate(request)));
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (TaskRejectedException e) {
+            rejections.increment();
+            hashingLogger.warn("Password hashing queue is full ({} pending), rejecting request", executor.getQueueSize());
+            throw new ServiceBusyException("Too many authentication requests, try again shortly", retryAfter);
+        }
+
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        }
+    }
+}
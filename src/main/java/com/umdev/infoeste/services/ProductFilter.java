@@ -0,0 +1,40 @@
+package com.umdev.infoeste.services;
+
+import com.umdev.infoeste.utils.text.TextNormalizer;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Normalized listing filters. Two requests that select the same rows produce equal instances,
+ * which makes this record usable as a cache key.
+ */
+public record ProductFilter(
+        UUID storeId,
+        String query,
+        String category,
+        BigDecimal minPrice,
+        BigDecimal maxPrice
+) {
+    public static ProductFilter of(UUID storeId, String query, String category,
+                                   BigDecimal minPrice, BigDecimal maxPrice) {
+        return new ProductFilter(storeId, fold(query), normalize(category),
+                normalize(minPrice), normalize(maxPrice));
+    }
+
+    private static String normalize(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String fold(String value) {
+        return value == null || value.isBlank() ? null : TextNormalizer.fold(value);
+    }
+
+    private static BigDecimal normalize(BigDecimal value) {
+        return value == null ? null : value.stripTrailingZeros();
+    }
+}
@@ -1,25 +1,62 @@
 package com.umdev.infoeste.services;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import com.umdev.infoeste.dto.*;
+import com.umdev.infoeste.entities.Category;
 import com.umdev.infoeste.entities.Product;
 import com.umdev.infoeste.entities.Store;
+import com.umdev.infoeste.events.ProductChangedEvent;
+import com.umdev.infoeste.mappers.ProductImageMapper;
 import com.umdev.infoeste.mappers.ProductMapper;
 import com.umdev.infoeste.repositories.ProductRepository;
+import com.umdev.infoeste.repositories.ProductSort;
 import com.umdev.infoeste.repositories.StoreRepository;
+import com.umdev.infoeste.repositories.projections.CategoryCountRow;
+import com.umdev.infoeste.repositories.projections.PriceBucketRow;
+import com.umdev.infoeste.repositories.projections.ProductImageView;
+import com.umdev.infoeste.repositories.projections.ProductSortKey;
+import com.umdev.infoeste.repositories.projections.ProductSummary;
+import com.umdev.infoeste.services.cache.ListingResultCache;
+import com.umdev.infoeste.services.cache.ListingResultCache.ListingKey;
+import com.umdev.infoeste.services.cache.ProductCountCache;
+import com.umdev.infoeste.services.search.ProductSearchIndex;
+import com.umdev.infoeste.services.search.ProductSearchIndex.SearchHit;
+import com.umdev.infoeste.services.search.SuggestionIndex;
+import com.umdev.infoeste.services.storage.ImageRenditionService;
+import com.umdev.infoeste.services.storage.ImageSize;
+import com.umdev.infoeste.services.storage.ImageStorage;
+import com.umdev.infoeste.services.storage.ImageUploadStream;
+import com.umdev.infoeste.services.storage.StoredImage;
+import com.umdev.infoeste.utils.pagination.PageCursor;
+import com.umdev.infoeste.utils.exceptions.FileProcessingException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.Base64;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
@@ -27,22 +64,57 @@ public class ProductService {
     private final ProductRepository productRepository;
     private final StoreRepository storeRepository;
     private final ProductMapper productMapper;
+    private final ProductImageMapper productImageMapper;
+    private final ImageStorage imageStorage;
+    private final ImageRenditionService imageRenditionService;
+    private final ProductCountCache productCountCache;
+    private final ListingResultCache listingResultCache;
+    private final ProductSearchIndex productSearchIndex;
+    private final SuggestionIndex suggestionIndex;
+    private final CategoryDictionary categoryDictionary;
+    private final CategoryMigration categoryMigration;
+    private final Cache<UUID, ProductDetailDto> productDetailCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BigDecimal priceBucketSize;
     private final Logger productLogger = LoggerFactory.getLogger(ProductService.class);
     
     private static final long MAX_FILE_SIZE = 5 * 1024 * 1024;
+    private static final int MAX_SUGGESTIONS = 20;
+    // Ids de categoria começam em 1: filtrar por uma categoria inexistente não deve casar com nenhum produto
+    private static final int UNKNOWN_CATEGORY_ID = 0;
     private static final List<String> ALLOWED_TYPES = List.of("image/jpeg", "image/png", "image/webp");
 
     public ProductService(ProductRepository productRepository, StoreRepository storeRepository, 
-                         ProductMapper productMapper) {
+                         ProductMapper productMapper, ProductImageMapper productImageMapper,
+                         ImageStorage imageStorage,
+                         ImageRenditionService imageRenditionService, ProductCountCache productCountCache,
+                         ListingResultCache listingResultCache,
+                         ProductSearchIndex productSearchIndex, SuggestionIndex suggestionIndex,
+                         CategoryDictionary categoryDictionary, CategoryMigration categoryMigration,
+                         @Qualifier("productDetailCache") Cache<UUID, ProductDetailDto> productDetailCache,
+                         ApplicationEventPublisher eventPublisher,
+                         @Value("${catalog.facets.price-bucket-size}") BigDecimal priceBucketSize) {
         this.productRepository = productRepository;
         this.storeRepository = storeRepository;
         this.productMapper = productMapper;
+        this.productImageMapper = productImageMapper;
+        this.imageStorage = imageStorage;
+        this.imageRenditionService = imageRenditionService;
+        this.productCountCache = productCountCache;
+        this.listingResultCache = listingResultCache;
+        this.productSearchIndex = productSearchIndex;
+        this.suggestionIndex = suggestionIndex;
+        this.categoryDictionary = categoryDictionary;
+        this.categoryMigration = categoryMigration;
+        this.productDetailCache = productDetailCache;
+        this.eventPublisher = eventPublisher;
+        this.priceBucketSize = priceBucketSize;
     }
 
-    public ProductCreateResponseDto createProduct(String storeEmail, ProductCreateDto productDto, 
+    public ProductCreateResponseDto createProduct(UUID storeId, ProductCreateDto productDto, 
                                                 MultipartFile file) {
         productLogger.info("=== STARTING PRODUCT CREATION ===");
-        productLogger.info("Store email: {}", storeEmail);
+        productLogger.info("Store ID: {}", storeId);
         productLogger.info("Product data: name={}, price={}, stock={}, category={}", 
                           productDto.name(), productDto.price(), productDto.stock(), productDto.category());
         productLogger.info("File data: name={}, size={}, contentType={}", 
@@ -52,30 +124,29 @@ public class ProductService {
         validateImageFile(file);
         productLogger.info("Step 1: Image file validation completed successfully");
 
-        productLogger.info("Step 2: Finding store by email...");
-        Store store = storeRepository.findByEmail(storeEmail)
-                .orElseThrow(() -> new UsernameNotFoundException("Store not found with email: " + storeEmail));
-        productLogger.info("Step 2: Store found - ID: {}, Name: {}", store.getId(), store.getName());
+        // O id vem do token: a loja entra como referência, sem consultar a tabela de lojas
+        productLogger.info("Step 2: Referencing store {}...", storeId);
+        Store store = storeRepository.getReferenceById(storeId);
 
         productLogger.info("Step 3: Converting DTO to entity...");
         Product product = productMapper.toEntity(productDto);
         product.setStore(store);
+        product.setCategory(categoryDictionary.resolve(productDto.category()));
         product.setCreatedAt(LocalDateTime.now());
         productLogger.info("Step 3: Entity created successfully");
 
-        productLogger.info("Step 4: Converting image to base64...");
-        try {
-            String base64Image = Base64.getEncoder().encodeToString(file.getBytes());
-            product.setImageBase64(base64Image);
-            productLogger.info("Step 4: Image converted to base64 successfully (length: {})", base64Image.length());
-        } catch (Exception e) {
-            productLogger.error("Step 4: Error converting image to base64", e);
-            throw new RuntimeException("Error processing image file");
-        }
+        productLogger.info("Step 4: Storing image file...");
+        attachImage(product, file);
+        productLogger.info("Step 4: Image stored successfully (key: {}, type: {})",
+                          product.getImageKey(), product.getImageContentType());
 
         productLogger.info("Step 5: Saving product to database...");
         Product savedProduct = productRepository.save(product);
         productLogger.info("Step 5: Product saved successfully with ID: {}", savedProduct.getId());
+        categoryMigration.syncLegacyColumn(savedProduct.getCategory());
+        imageRenditionService.generateAsync(savedProduct.getImageKey(), savedProduct.getImageContentType());
+        eventPublisher.publishEvent(new ProductChangedEvent(savedProduct.getId(), storeId,
+                categoryIdsOf(savedProduct.getCategory())));
 
         productLogger.info("Step 6: Converting entity to response DTO...");
         ProductCreateResponseDto response = productMapper.toCreateResponse(savedProduct);
@@ -85,140 +156,416 @@ public class ProductService {
         return response;
     }
 
-    public List<ProductMyListDto> getMyProducts(String storeEmail) {
-        productLogger.info("Fetching products for store: {}", storeEmail);
-        
-        Store store = storeRepository.findByEmail(storeEmail)
-                .orElseThrow(() -> new UsernameNotFoundException("Store not found with email: " + storeEmail));
+    public List<ProductMyListDto> getMyProducts(UUID storeId) {
+        productLogger.info("Fetching products for store: {}", storeId);
 
-        List<Product> products = productRepository.findByStoreId(store.getId());
+        List<ProductSummary> products = productRepository.findSummariesByStoreId(storeId);
         
         return products.stream()
                 .map(productMapper::toMyListDto)
                 .toList();
     }
 
-    public ProductCreateResponseDto updateProduct(String storeEmail, UUID productId, 
+    public ProductCreateResponseDto updateProduct(UUID storeId, UUID productId, 
                                                 ProductUpdateDto updateDto) {
-        productLogger.info("Updating product {} for store: {}", productId, storeEmail);
-        
-        Store store = storeRepository.findByEmail(storeEmail)
-                .orElseThrow(() -> new UsernameNotFoundException("Store not found with email: " + storeEmail));
+        productLogger.info("Updating product {} for store: {}", productId, storeId);
 
-        Product product = productRepository.findByIdAndStoreId(productId, store.getId())
+        Product product = productRepository.findByIdAndStoreId(productId, storeId)
                 .orElseThrow(() -> new IllegalArgumentException("Product not found or doesn't belong to store"));
 
+        Category previousCategory = product.getCategory();
+
         // Atualizar campos
         product.setName(updateDto.name());
         product.setPrice(updateDto.price());
         product.setStock(updateDto.stock());
-        product.setCategory(updateDto.category());
+        product.setCategory(categoryDictionary.resolve(updateDto.category()));
 
         Product savedProduct = productRepository.save(product);
+        categoryMigration.syncLegacyColumn(savedProduct.getCategory());
+        productDetailCache.invalidate(productId);
+        eventPublisher.publishEvent(new ProductChangedEvent(productId, storeId,
+                categoryIdsOf(previousCategory, savedProduct.getCategory())));
         productLogger.info("Product {} updated successfully", productId);
 
         return productMapper.toCreateResponse(savedProduct);
     }
 
-    public ProductImageUpdateResponseDto updateProductImage(String storeEmail, UUID productId, 
+    public ProductImageUpdateResponseDto updateProductImage(UUID storeId, UUID productId, 
                                                           MultipartFile file) {
-        productLogger.info("Updating image for product {} from store: {}", productId, storeEmail);
+        productLogger.info("Updating image for product {} from store: {}", productId, storeId);
 
         validateImageFile(file);
-        
-        Store store = storeRepository.findByEmail(storeEmail)
-                .orElseThrow(() -> new UsernameNotFoundException("Store not found with email: " + storeEmail));
 
-        Product product = productRepository.findByIdAndStoreId(productId, store.getId())
+        Product product = productRepository.findByIdAndStoreId(productId, storeId)
                 .orElseThrow(() -> new IllegalArgumentException("Product not found or doesn't belong to store"));
 
-        try {
-            String base64Image = Base64.getEncoder().encodeToString(file.getBytes());
-            product.setImageBase64(base64Image);
-        } catch (Exception e) {
-            productLogger.error("Error converting image to base64", e);
-            throw new RuntimeException("Error processing image file");
-        }
+        attachImage(product, file);
 
         Product savedProduct = productRepository.save(product);
+        productDetailCache.invalidate(productId);
+        imageRenditionService.generateAsync(savedProduct.getImageKey(), savedProduct.getImageContentType());
+        eventPublisher.publishEvent(new ProductChangedEvent(productId, storeId,
+                categoryIdsOf(savedProduct.getCategory())));
         productLogger.info("Image updated successfully for product {}", productId);
 
         return productMapper.toImageUpdateResponse(savedProduct);
     }
 
-    public PaginatedResponseDto<ProductPublicDto> getProducts(int page, int limit, String query, 
-                                                            String category, BigDecimal minPrice, 
+    public PaginatedResponseDto<ProductPublicDto> getProducts(int page, int limit, String cursor, Boolean includeTotal,
+                                                            boolean includeFacets, String sort, String query,
+                                                            String category, BigDecimal minPrice,
                                                             BigDecimal maxPrice) {
-        productLogger.info("Fetching public products - page: {}, limit: {}, query: {}, category: {}", 
-                          page, limit, query, category);
+        productLogger.info("Fetching public products - page: {}, limit: {}, cursor: {}, query: {}, category: {}", 
+                          page, limit, cursor, query, category);
+
+        ProductFilter filter = ProductFilter.of(null, query, category, minPrice, maxPrice);
+        PaginatedResponseDto<ProductPublicDto> response = listProducts(filter, ProductSort.fromParam(sort), page, limit,
+                cursor, includeTotal);
+
+        return includeFacets ? response.withFacets(buildFacets(filter)) : response;
+    }
+
+    public PaginatedResponseDto<ProductPublicDto> getProductsByStore(UUID storeId, int page, int limit, String cursor,
+                                                                   Boolean includeTotal, boolean includeFacets,
+                                                                   String sort, String query, String category, 
+                                                                   BigDecimal minPrice, BigDecimal maxPrice) {
+        productLogger.info("Fetching products for store {} - page: {}, limit: {}, cursor: {}, query: {}, category: {}", 
+                          storeId, page, limit, cursor, query, category);
         
-        Pageable pageable = PageRequest.of(page - 1, limit);
-        Page<Product> productPage = productRepository.findProductsWithFilters(
-                query, category, minPrice, maxPrice, pageable);
+        if (!storeRepository.existsById(storeId)) {
+            throw new IllegalArgumentException("Store not found with id: " + storeId);
+        }
+
+        ProductFilter filter = ProductFilter.of(storeId, query, category, minPrice, maxPrice);
+        PaginatedResponseDto<ProductPublicDto> response = listProducts(filter, ProductSort.fromParam(sort), page, limit,
+                cursor, includeTotal);
+
+        return includeFacets ? response.withFacets(buildFacets(filter)) : response;
+    }
+
+    private PaginatedResponseDto<ProductPublicDto> listProducts(ProductFilter filter, ProductSort sort, int page,
+                                                               int limit, String cursor, Boolean includeTotal) {
+        ListingKey key = new ListingKey(filter, sort, cursor == null ? page : null, limit, cursor,
+                shouldCount(cursor, includeTotal));
+        return listingResultCache.get(key, this::toPublicDtos,
+                () -> loadListing(filter, sort, page, limit, cursor, includeTotal));
+    }
+
+    private PaginatedResponseDto<ProductPublicDto> loadListing(ProductFilter filter, ProductSort sort, int page,
+                                                               int limit, String cursor, Boolean includeTotal) {
+        if (filter.query() != null) {
+            return searchProducts(filter, sort, page, limit, cursor, includeTotal);
+        }
+
+        ProductSort order = sort != null ? sort : ProductSort.NEWEST;
+
+        if (cursor != null) {
+            PageCursor after = PageCursor.decode(cursor);
+            if (after != null && !after.sort().equals(order.getParam())) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            List<ProductSummary> rows = productRepository.findListing(
+                    filter.storeId(), categoryId(filter), filter.minPrice(), filter.maxPrice(), order,
+                    after != null ? order.parseCursorValue(after.value()) : null, after != null ? after.id() : null,
+                    0, limit + 1);
+            return toCursorPage(rows, order, limit, shouldCount(cursor, includeTotal) ? countProducts(filter) : null);
+        }
+
+        List<ProductSummary> rows = productRepository.findListing(
+                filter.storeId(), categoryId(filter), filter.minPrice(), filter.maxPrice(), order,
+                null, null, (page - 1) * limit, limit);
+
+        return toOffsetPage(rows, page, limit, shouldCount(null, includeTotal) ? countProducts(filter) : null);
+    }
+
+    /*
+     * Facetas com a busca, a loja e a faixa de preço aplicadas: na busca textual saem dos resultados do índice,
+     * nas listagens de duas consultas agregadas no banco (por categoria e por faixa de preço).
+     * A contagem por categoria ignora a categoria selecionada, para a barra lateral mostrar as alternativas;
+     * o histograma de preços respeita a categoria selecionada.
+     */
+    private FacetsDto buildFacets(ProductFilter filter) {
+        Integer selectedCategoryId = categoryId(filter);
+        Map<Integer, Long> categoryCounts = new HashMap<>();
+        NavigableMap<BigDecimal, Long> histogram = new TreeMap<>();
+
+        if (filter.query() != null) {
+            for (SearchHit hit : productSearchIndex.search(filter.query(), searchFilter(filter, false))) {
+                if (hit.categoryId() != null) {
+                    categoryCounts.merge(hit.categoryId(), 1L, Long::sum);
+                }
+                if (selectedCategoryId == null || selectedCategoryId.equals(hit.categoryId())) {
+                    histogram.merge(bucketStart(hit.price()), 1L, Long::sum);
+                }
+            }
+        } else {
+            for (CategoryCountRow row : productRepository.findCategoryCounts(filter.storeId(), filter.minPrice(),
+                    filter.maxPrice())) {
+                if (row.getCategoryId() != null) {
+                    categoryCounts.put(row.getCategoryId(), row.getProductCount());
+                }
+            }
+            for (PriceBucketRow row : productRepository.findPriceBuckets(filter.storeId(), selectedCategoryId,
+                    filter.minPrice(), filter.maxPrice(), priceBucketSize)) {
+                histogram.merge(row.min(), row.productCount(), Long::sum);
+            }
+        }
+
+        List<FacetsDto.CategoryCount> categories = categoryCounts.entrySet().stream()
+                .map(entry -> new FacetsDto.CategoryCount(categoryDictionary.nameOf(entry.getKey()), entry.getValue()))
+                .sorted(Comparator.comparingLong(FacetsDto.CategoryCount::count).reversed()
+                        .thenComparing(FacetsDto.CategoryCount::name, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+
+        List<FacetsDto.PriceBucket> priceHistogram = histogram.entrySet().stream()
+                .map(entry -> new FacetsDto.PriceBucket(entry.getKey(), entry.getKey().add(priceBucketSize), entry.getValue()))
+                .toList();
+
+        return new FacetsDto(categories, priceHistogram);
+    }
+
+    private BigDecimal bucketStart(BigDecimal price) {
+        return price.divideToIntegralValue(priceBucketSize).multiply(priceBucketSize);
+    }
+
+    // Filtros da listagem aplicados pelo índice a cada resultado, antes de qualquer paginação
+    private Predicate<SearchHit> searchFilter(ProductFilter filter, boolean withCategory) {
+        Integer categoryId = withCategory ? categoryId(filter) : null;
+        return hit -> (filter.storeId() == null || filter.storeId().equals(hit.storeId()))
+                && (categoryId == null || categoryId.equals(hit.categoryId()))
+                && (filter.minPrice() == null || hit.price().compareTo(filter.minPrice()) >= 0)
+                && (filter.maxPrice() == null || hit.price().compareTo(filter.maxPrice()) <= 0);
+    }
+
+    // Busca textual: o índice devolve os resultados já filtrados e ordenados e o banco só carrega a página
+    private PaginatedResponseDto<ProductPublicDto> searchProducts(ProductFilter filter, ProductSort sort, int page,
+                                                                 int limit, String cursor, Boolean includeTotal) {
+        // A página é recortada aqui e não pelo PageRequest, então a validação que ele fazia também fica aqui
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be greater than 0");
+        }
+        if (cursor == null && page < 1) {
+            throw new IllegalArgumentException("Page must be greater than 0");
+        }
+        List<SearchHit> hits = productSearchIndex.search(filter.query(), searchFilter(filter, true));
+
+        // Com ordenação explícita, os resultados são reordenados em memória pelos campos guardados no índice
+        Comparator<ProductSortKey> order = sort != null ? sort.comparator() : null;
+        if (order != null) {
+            hits = new ArrayList<>(hits);
+            hits.sort(order);
+        }
+
+        int from = (page - 1) * limit;
+        if (cursor != null) {
+            PageCursor after = PageCursor.decode(cursor);
+            from = after == null ? 0 : searchPosition(hits, sort, after);
+        }
+        int to = Math.min(from + limit, hits.size());
+        List<UUID> pageIds = from < to ? hits.subList(from, to).stream().map(SearchHit::id).toList() : List.of();
+
+        Map<UUID, ProductSummary> rowsById = pageIds.isEmpty() ? Map.of()
+                : productRepository.findSummariesByIds(pageIds).stream()
+                        .collect(Collectors.toMap(ProductSummary::getId, Function.identity()));
+        List<ProductPublicDto> productList = pageIds.stream()
+                .map(rowsById::get)
+                .filter(Objects::nonNull)
+                .map(productMapper::toPublicDto)
+                .toList();
+
+        Long total = shouldCount(cursor, includeTotal) ? (long) hits.size() : null;
+
+        PaginatedResponseDto.MetaData meta;
+        if (cursor != null) {
+            String nextCursor = null;
+            if (to < hits.size()) {
+                SearchHit last = hits.get(to - 1);
+                nextCursor = sort != null
+                        ? new PageCursor(sort.getParam(), sort.cursorValue(last), last.id()).encode()
+                        : new PageCursor(PageCursor.RELEVANCE, Double.toString(last.score()), last.id()).encode();
+            }
+            meta = new PaginatedResponseDto.MetaData(null, limit, total, nextCursor);
+        } else {
+            meta = new PaginatedResponseDto.MetaData(page, limit, total, null);
+        }
 
-        List<ProductPublicDto> productList = productPage.getContent()
-                .stream()
+        return new PaginatedResponseDto<>(meta, productList);
+    }
+
+    /*
+     * O cursor da busca guarda a chave de ordenação (ou a pontuação) e o id do último resultado, não a sua posição
+     * na lista: a próxima página começa no primeiro resultado depois desse par, mesmo que o produto tenha sido
+     * removido. Um cursor de outra ordenação é rejeitado, como nas listagens.
+     *
+     * Limitação da ordem por relevância: a pontuação BM25 depende do idf e do tamanho médio dos documentos, que
+     * mudam a cada escrita no catálogo. Depois de uma escrita, todas as pontuações se deslocam e o par guardado
+     * cai numa posição que não corresponde mais à página anterior, então resultados podem se repetir ou ser
+     * pulados. As ordenações explícitas (sort) usam campos do próprio produto e não têm esse problema.
+     */
+    private static int searchPosition(List<SearchHit> hits, ProductSort sort, PageCursor after) {
+        String expectedSort = sort != null ? sort.getParam() : PageCursor.RELEVANCE;
+        if (!after.sort().equals(expectedSort)) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        int position = sort != null
+                ? Collections.binarySearch(hits, sort.cursorKey(after.value(), after.id()), sort.comparator())
+                : Collections.binarySearch(hits, new SearchHit(after.id(), after.score(), null, null, null, null, null),
+                        SearchHit.BY_RELEVANCE);
+        return position >= 0 ? position + 1 : -position - 1;
+    }
+
+    // Reconstrói uma página do cache de listagens na ordem guardada; produtos removidos nesse meio-tempo são pulados
+    private List<ProductPublicDto> toPublicDtos(List<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, ProductSummary> rowsById = productRepository.findSummariesByIds(ids).stream()
+                .collect(Collectors.toMap(ProductSummary::getId, Function.identity()));
+        return ids.stream()
+                .map(rowsById::get)
+                .filter(Objects::nonNull)
                 .map(productMapper::toPublicDto)
                 .toList();
+    }
+
+    private static Set<Integer> categoryIdsOf(Category... categories) {
+        Set<Integer> ids = new HashSet<>();
+        for (Category category : categories) {
+            if (category != null) {
+                ids.add(category.getId());
+            }
+        }
+        return ids;
+    }
 
-        PaginatedResponseDto.MetaData meta = new PaginatedResponseDto.MetaData(
-                page, 
-                limit, 
-                productPage.getTotalElements()
-        );
+    private Integer categoryId(ProductFilter filter) {
+        if (filter.category() == null) {
+            return null;
+        }
+        return categoryDictionary.findId(filter.category()).orElse(UNKNOWN_CATEGORY_ID);
+    }
+
+    // Sem includeTotal explícito, a contagem só é feita na paginação por página
+    private static boolean shouldCount(String cursor, Boolean includeTotal) {
+        return includeTotal != null ? includeTotal : cursor == null;
+    }
+
+    private long countProducts(ProductFilter filter) {
+        return productCountCache.get(filter, () -> filter.storeId() == null
+                ? productRepository.countProductsWithFilters(
+                        categoryId(filter), filter.minPrice(), filter.maxPrice())
+                : productRepository.countProductsByStoreWithFilters(
+                        filter.storeId(), categoryId(filter), filter.minPrice(), filter.maxPrice()));
+    }
+
+    private PaginatedResponseDto<ProductPublicDto> toOffsetPage(List<ProductSummary> rows, int page, int limit, Long total) {
+        List<ProductPublicDto> productList = rows.stream()
+                .map(productMapper::toPublicDto)
+                .toList();
+
+        PaginatedResponseDto.MetaData meta = new PaginatedResponseDto.MetaData(page, limit, total, null);
 
         return new PaginatedResponseDto<>(meta, productList);
     }
 
-    public PaginatedResponseDto<ProductPublicDto> getProductsByStore(UUID storeId, int page, int limit, 
-                                                                   String query, String category, 
-                                                                   BigDecimal minPrice, BigDecimal maxPrice) {
-        productLogger.info("Fetching products for store {} - page: {}, limit: {}, query: {}, category: {}", 
-                          storeId, page, limit, query, category);
-        
-        Store store = storeRepository.findById(storeId)
-                .orElseThrow(() -> new IllegalArgumentException("Store not found with id: " + storeId));
-        
-        Pageable pageable = PageRequest.of(page - 1, limit);
-        Page<Product> productPage = productRepository.findProductsByStoreWithFilters(
-                storeId, query, category, minPrice, maxPrice, pageable);
+    // A consulta busca limit + 1 linhas: a linha extra só indica que existe uma próxima página
+    private PaginatedResponseDto<ProductPublicDto> toCursorPage(List<ProductSummary> rows, ProductSort sort, int limit,
+                                                                Long total) {
+        boolean hasNext = rows.size() > limit;
+        List<ProductSummary> pageRows = hasNext ? rows.subList(0, limit) : rows;
 
-        List<ProductPublicDto> productList = productPage.getContent()
-                .stream()
+        String nextCursor = null;
+        if (hasNext) {
+            ProductSummary last = pageRows.get(pageRows.size() - 1);
+            nextCursor = new PageCursor(sort.getParam(), sort.cursorValue(last), last.getId()).encode();
+        }
+
+        List<ProductPublicDto> productList = pageRows.stream()
                 .map(productMapper::toPublicDto)
                 .toList();
 
-        PaginatedResponseDto.MetaData meta = new PaginatedResponseDto.MetaData(
-                page, 
-                limit, 
-                productPage.getTotalElements()
-        );
+        PaginatedResponseDto.MetaData meta = new PaginatedResponseDto.MetaData(null, limit, total, nextCursor);
 
         return new PaginatedResponseDto<>(meta, productList);
     }
 
-    public ProductDetailDto getProductById(UUID productId) {
+    public List<SuggestionDto> suggest(String prefix, int limit) {
+        return suggestionIndex.suggest(prefix, Math.max(1, Math.min(limit, MAX_SUGGESTIONS)));
+    }
+
+    public ProductDetailDto getProductById(UUID productId, boolean inlineImage) {
         productLogger.info("Fetching product details for ID: {}", productId);
         
-        Product product = productRepository.findById(productId)
+        // A carga é atômica por chave: uma invalidação concorrente espera a leitura terminar e a descarta
+        ProductDetailDto detail = productDetailCache.get(productId, id -> productRepository.findById(id)
+                .map(productMapper::toDetailDto)
+                .orElseThrow(() -> new IllegalArgumentException("Product not found with id: " + id)));
+
+        // O cache guarda só o caminho da imagem; o host vem da requisição atual, nunca da que preencheu o cache
+        detail = detail.withImageUrl(productImageMapper.toAbsoluteUrl(detail.imageUrl()));
+
+        // A imagem embutida não vai para o cache para manter as entradas pequenas
+        if (inlineImage) {
+            ProductImageView image = productRepository.findImageById(productId)
+                    .orElseThrow(() -> new IllegalArgumentException("Product not found with id: " + productId));
+            detail = detail.withImageData(new InlineImageDto(image.getImageContentType(),
+                    imageStorage.load(image.getImageKey())));
+        }
+        return detail;
+    }
+
+    public StoredImage getProductImage(UUID productId, ImageSize size) {
+        ProductImageView product = productRepository.findImageById(productId)
                 .orElseThrow(() -> new IllegalArgumentException("Product not found with id: " + productId));
 
-        return productMapper.toDetailDto(product);
+        String key = product.getImageKey();
+        if (size != ImageSize.ORIGINAL) {
+            var rendition = imageStorage.loadRendition(key, size);
+            if (rendition.isPresent()) {
+                return new StoredImage(key + "-" + size.getWidth(), "image/jpeg", rendition.get(), false);
+            }
+            // Miniatura ainda não gerada (ou descartada com a fila cheia): agenda de novo e serve o original provisoriamente
+            if (imageRenditionService.supports(product.getImageContentType())) {
+                imageRenditionService.generateAsync(key, product.getImageContentType());
+                return new StoredImage(key, product.getImageContentType(), imageStorage.load(key), true);
+            }
+        }
+
+        return new StoredImage(key, product.getImageContentType(), imageStorage.load(key), false);
     }
 
-    public void deleteProduct(String storeEmail, UUID productId) {
-        productLogger.info("Deleting product {} for store: {}", productId, storeEmail);
-        
-        Store store = storeRepository.findByEmail(storeEmail)
-                .orElseThrow(() -> new UsernameNotFoundException("Store not found with email: " + storeEmail));
+    public void deleteProduct(UUID storeId, UUID productId) {
+        productLogger.info("Deleting product {} for store: {}", productId, storeId);
 
-        Product product = productRepository.findByIdAndStoreId(productId, store.getId())
+        Product product = productRepository.findByIdAndStoreId(productId, storeId)
                 .orElseThrow(() -> new IllegalArgumentException("Product not found or doesn't belong to store"));
 
+        // O blob da imagem pode ser compartilhado: quem o remove é a coleta do ImageGarbageCollector
         productRepository.delete(product);
+        productDetailCache.invalidate(productId);
+        eventPublisher.publishEvent(new ProductChangedEvent(productId, storeId,
+                categoryIdsOf(product.getCategory())));
         productLogger.info("Product {} deleted successfully", productId);
     }
 
+    // O arquivo vai direto do multipart para o storage em blocos, sem passar inteiro pela heap
+    private void attachImage(Product product, MultipartFile file) {
+        try (InputStream in = file.getInputStream()) {
+            ImageUploadStream upload = new ImageUploadStream(in, MAX_FILE_SIZE);
+            product.setImageKey(imageStorage.store(upload));
+            product.setImageContentType(upload.getDetectedType());
+        } catch (IOException e) {
+            productLogger.error("Error reading uploaded image file", e);
+            throw new FileProcessingException("Error processing image file", e);
+        }
+
+        if (!product.getImageContentType().equals(file.getContentType())) {
+            productLogger.warn("Image content type mismatch: declared {}, detected {}",
+                              file.getContentType(), product.getImageContentType());
+        }
+    }
+
     private void validateImageFile(MultipartFile file) {
         productLogger.info("Validating image file...");
         
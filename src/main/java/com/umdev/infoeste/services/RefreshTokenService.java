@@ -0,0 +1,122 @@
+package com.umdev.infoeste.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.umdev.infoeste.entities.RefreshToken;
+import com.umdev.infoeste.entities.Store;
+import com.umdev.infoeste.repositories.RefreshTokenRepository;
+import com.umdev.infoeste.repositories.StoreRepository;
+import com.umdev.infoeste.security.AuthenticatedStore;
+import com.umdev.infoeste.security.TokenHashes;
+import com.umdev.infoeste.utils.exceptions.InvalidTokenException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque, single-use refresh tokens. Renewing a session costs a cache lookup (or one indexed
+ * query by the token hash) instead of a BCrypt check, and every use rotates the token.
+ * Tokens rotated from the same login form a family; presenting a token that was already used
+ * revokes the whole family, since either the legitimate client or an attacker holds a stolen copy.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    /**
+     * What a refresh needs to issue a new access token without loading the store again.
+     */
+    public record RefreshSession(UUID tokenId, UUID familyId, AuthenticatedStore store, Instant expiresAt) {
+    }
+
+    public record Rotation(AuthenticatedStore store, String refreshToken) {
+    }
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final StoreRepository storeRepository;
+    private final Cache<String, RefreshSession> sessions;
+    private final Duration expiration;
+    private final SecureRandom random = new SecureRandom();
+    private final Logger refreshLogger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository, StoreRepository storeRepository,
+                               @Qualifier("refreshTokenCache") Cache<String, RefreshSession> sessions,
+                               @Value("${jwt.refresh.expiration}") Duration expiration) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.storeRepository = storeRepository;
+        this.sessions = sessions;
+        this.expiration = expiration;
+    }
+
+    public String issue(Store store) {
+        // Tokens vencidos da loja são limpos aqui, então a tabela não cresce sem um job agendado
+        refreshTokenRepository.deleteExpiredByStoreId(store.getId(), Instant.now());
+        return create(new AuthenticatedStore(store.getId(), store.getEmail(), store.getRole()), UUID.randomUUID());
+    }
+
+    public Rotation rotate(String rawToken) {
+        String tokenHash = TokenHashes.sha256(rawToken);
+
+        RefreshSession session = sessions.getIfPresent(tokenHash);
+        if (session == null) {
+            session = refreshTokenRepository.findWithStoreByTokenHash(tokenHash)
+                    .map(RefreshTokenService::toSession)
+                    .orElseThrow(() -> new InvalidTokenException("Invalid refresh token"));
+        }
+        sessions.invalidate(tokenHash);
+
+        if (refreshTokenRepository.markUsed(session.tokenId()) == 0) {
+            refreshLogger.warn("Refresh token of store {} was already used, revoking its session", session.store().storeId());
+            revoke(session);
+            throw new InvalidTokenException("Invalid refresh token");
+        }
+        if (session.expiresAt().isBefore(Instant.now())) {
+            throw new InvalidTokenException("Refresh token expired. Please login again.");
+        }
+
+        // Tokens anteriores à coluna de família começam uma família nova na primeira renovação
+        UUID familyId = session.familyId() != null ? session.familyId() : UUID.randomUUID();
+        return new Rotation(session.store(), create(session.store(), familyId));
+    }
+
+    private void revoke(RefreshSession session) {
+        UUID familyId = session.familyId();
+        if (familyId != null) {
+            refreshTokenRepository.deleteByFamilyId(familyId);
+            sessions.asMap().values().removeIf(cached -> familyId.equals(cached.familyId()));
+        } else {
+            // Sem família conhecida não dá para saber qual login vazou, então caem todas as sessões da loja
+            UUID storeId = session.store().storeId();
+            refreshTokenRepository.deleteByStoreId(storeId);
+            sessions.asMap().values().removeIf(cached -> storeId.equals(cached.store().storeId()));
+        }
+    }
+
+    private String create(AuthenticatedStore principal, UUID familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        String tokenHash = TokenHashes.sha256(rawToken);
+
+        RefreshToken saved = refreshTokenRepository.save(
+                new RefreshToken(null, tokenHash, storeRepository.getReferenceById(principal.storeId()),
+                        Instant.now().plus(expiration), familyId, false));
+        sessions.put(tokenHash, new RefreshSession(saved.getId(), familyId, principal, saved.getExpiresAt()));
+        return rawToken;
+    }
+
+    private static RefreshSession toSession(RefreshToken token) {
+        Store store = token.getStore();
+        return new RefreshSession(token.getId(), token.getFamilyId(),
+                new AuthenticatedStore(store.getId(), store.getEmail(), store.getRole()),
+                token.getExpiresAt());
+    }
+}
@@ -1,41 +1,78 @@
 package com.umdev.infoeste.services;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import com.umdev.infoeste.dto.*;
 import com.umdev.infoeste.entities.Store;
 import com.umdev.infoeste.entities.UserRole;
+import com.umdev.infoeste.events.StoreChangedEvent;
 import com.umdev.infoeste.mappers.StoreMapper;
 import com.umdev.infoeste.repositories.StoreRepository;
+import com.umdev.infoeste.security.AuthenticatedStore;
+import com.umdev.infoeste.security.CurrentStoreContext;
 import com.umdev.infoeste.security.JwtService;
+import com.umdev.infoeste.security.RateLimitRule;
+import com.umdev.infoeste.services.search.StoreTrigramIndex;
+import com.umdev.infoeste.services.search.StoreTrigramIndex.StoreHit;
+import com.umdev.infoeste.utils.exceptions.RateLimitedException;
+import com.umdev.infoeste.utils.pagination.PageCursor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class StoreService {
     private final StoreRepository storeRepository;
     private final StoreMapper storeMapper;
-    private final AuthenticationManager authenticationManager;
+    private final PasswordHashingService passwordHashingService;
     private final JwtService jwtService;
+    private final RefreshTokenService refreshTokenService;
+    private final CurrentStoreContext currentStoreContext;
+    private final StoreTrigramIndex storeTrigramIndex;
+    private final Cache<UUID, StoreDetailDto> storeDetailCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RateLimitRule loginEmailRateLimit;
+    private final boolean rateLimitEnabled;
     private final Logger storeLogger = LoggerFactory.getLogger(StoreService.class);
 
     public StoreService(StoreRepository storeRepository, StoreMapper storeMapper, 
-                       AuthenticationManager authenticationManager, JwtService jwtService) {
+                       PasswordHashingService passwordHashingService, JwtService jwtService,
+                       RefreshTokenService refreshTokenService, CurrentStoreContext currentStoreContext,
+                       StoreTrigramIndex storeTrigramIndex,
+                       @Qualifier("storeDetailCache") Cache<UUID, StoreDetailDto> storeDetailCache,
+                       ApplicationEventPublisher eventPublisher,
+                       @Qualifier("loginEmailRateLimit") RateLimitRule loginEmailRateLimit,
+                       @Value("${rate-limit.enabled}") boolean rateLimitEnabled) {
         this.storeRepository = storeRepository;
         this.storeMapper = storeMapper;
-        this.authenticationManager = authenticationManager;
+        this.passwordHashingService = passwordHashingService;
         this.jwtService = jwtService;
+        this.refreshTokenService = refreshTokenService;
+        this.currentStoreContext = currentStoreContext;
+        this.storeTrigramIndex = storeTrigramIndex;
+        this.storeDetailCache = storeDetailCache;
+        this.eventPublisher = eventPublisher;
+        this.loginEmailRateLimit = loginEmailRateLimit;
+        this.rateLimitEnabled = rateLimitEnabled;
     }
 
     public StoreRegisterResponseDto register(StoreRegisterDto registerDto) {
@@ -48,13 +85,14 @@ public class StoreService {
             throw new IllegalArgumentException("Store already exists with email: " + storeToAdd.getEmail());
         }
 
-        String encryptedPassword = new BCryptPasswordEncoder().encode(storeToAdd.getPassword());
+        String encryptedPassword = passwordHashingService.encode(storeToAdd.getPassword());
         storeToAdd.setPassword(encryptedPassword);
 
         storeToAdd.setCreatedAt(LocalDateTime.now());
         storeToAdd.setRole(UserRole.USER);
 
         Store savedStore = storeRepository.save(storeToAdd);
+        eventPublisher.publishEvent(new StoreChangedEvent(savedStore.getId()));
         storeLogger.info("Store registered successfully with ID: {}", savedStore.getId());
 
         return storeMapper.toRegisterResponse(savedStore);
@@ -62,42 +100,70 @@ public class StoreService {
 
     public StoreLoginResponseDto login(StoreLoginDto loginDto) {
         storeLogger.info("Attempting login for store with email: {}", loginDto.email());
-        
+
+        // Antes do BCrypt: tentativas bloqueadas para a conta não custam um hash
+        if (rateLimitEnabled && loginDto.email() != null) {
+            Duration retryAfter = loginEmailRateLimit.tryAcquire("email:" + loginDto.email().trim().toLowerCase(Locale.ROOT));
+            if (!retryAfter.isZero()) {
+                storeLogger.warn("Login rate limit exceeded for email: {}", loginDto.email());
+                throw new RateLimitedException("Too many login attempts. Please try again later.", retryAfter);
+            }
+        }
+
         UsernamePasswordAuthenticationToken usernamePassword = 
             new UsernamePasswordAuthenticationToken(loginDto.email(), loginDto.password());
-        Authentication auth = authenticationManager.authenticate(usernamePassword);
+        Authentication auth = passwordHashingService.authenticate(usernamePassword);
 
-        String jwt = jwtService.getToken(auth.getName());
+        // O principal é a loja já carregada pelo UserDetailsService: nada de buscar o mesmo email de novo
+        Store store = (Store) auth.getPrincipal();
 
-        Store store = storeRepository.findByEmail(loginDto.email())
-                .orElseThrow(() -> {
-                    storeLogger.warn("Login failed - store not found with email: {}", loginDto.email());
-                    return new UsernameNotFoundException("Store not found with email: " + loginDto.email());
-                });
+        String jwt = jwtService.getToken(store);
+        String refreshToken = refreshTokenService.issue(store);
 
         storeLogger.info("Store login successful for ID: {}", store.getId());
 
         StoreLoginResponseDto.StoreInfo storeInfo = storeMapper.toLoginStoreInfo(store);
-        return new StoreLoginResponseDto(jwt, storeInfo);
+        return new StoreLoginResponseDto(jwt, refreshToken, storeInfo);
     }
 
-    public StoreProfileDto getProfile(String email) {
-        storeLogger.info("Fetching profile for store with email: {}", email);
+    // Renovação sem BCrypt: o refresh token é trocado por um novo e o access token sai das claims guardadas
+    public StoreRefreshResponseDto refresh(StoreRefreshDto refreshDto) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshDto.refreshToken());
+        String jwt = jwtService.getToken(rotation.store());
+
+        storeLogger.info("Session refreshed for store ID: {}", rotation.store().storeId());
+
+        return new StoreRefreshResponseDto(jwt, rotation.refreshToken());
+    }
+
+    public StoreProfileDto getProfile() {
+        UUID storeId = currentStoreContext.principal()
+                .map(AuthenticatedStore::storeId)
+                .orElse(null);
+        storeLogger.info("Fetching profile for store with ID: {}", storeId);
         
-        Store store = storeRepository.findByEmail(email)
+        Store store = currentStoreContext.store()
                 .orElseThrow(() -> {
-                    storeLogger.warn("Profile fetch failed - store not found with email: {}", email);
-                    return new UsernameNotFoundException("Store not found with email: " + email);
+                    storeLogger.warn("Profile fetch failed - store not found with ID: {}", storeId);
+                    return new UsernameNotFoundException("Store not found with id: " + storeId);
                 });
 
         return storeMapper.toProfileDto(store);
     }
 
-    public PaginatedResponseDto<StorePublicDto> getStores(int page, int limit, String query) {
-        storeLogger.info("Fetching stores - page: {}, limit: {}, query: {}", page, limit, query);
+    public PaginatedResponseDto<StorePublicDto> getStores(int page, int limit, String cursor, String query) {
+        storeLogger.info("Fetching stores - page: {}, limit: {}, cursor: {}, query: {}", page, limit, cursor, query);
+
+        if (query != null && !query.isBlank()) {
+            return searchStores(page, limit, cursor, query);
+        }
+
+        if (cursor != null) {
+            return getStoresByCursor(limit, cursor);
+        }
         
         Pageable pageable = PageRequest.of(page - 1, limit);
-        Page<Store> storePage = storeRepository.findStoresWithSearch(query, pageable);
+        Page<Store> storePage = storeRepository.findStoresNewestFirst(pageable);
 
         List<StorePublicDto> storeList = storePage.getContent()
                 .stream()
@@ -113,21 +179,92 @@ public class StoreService {
         return new PaginatedResponseDto<>(meta, storeList);
     }
 
+    // Busca tolerante a erros de digitação: o índice de trigramas ordena por similaridade e o banco só carrega a página
+    private PaginatedResponseDto<StorePublicDto> searchStores(int page, int limit, String cursor, String query) {
+        // A página é recortada aqui e não pelo PageRequest, então a validação que ele fazia também fica aqui
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be greater than 0");
+        }
+        if (cursor == null && page < 1) {
+            throw new IllegalArgumentException("Page must be greater than 0");
+        }
+        List<StoreHit> hits = storeTrigramIndex.search(query);
+
+        int from = (page - 1) * limit;
+        if (cursor != null) {
+            PageCursor after = PageCursor.decode(cursor);
+            from = after == null ? 0 : searchPosition(hits, after);
+        }
+        int to = Math.min(from + limit, hits.size());
+        List<UUID> pageIds = from < to ? hits.subList(from, to).stream().map(StoreHit::id).toList() : List.of();
+
+        Map<UUID, Store> storesById = storeRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Store::getId, Function.identity()));
+        List<Store> pageRows = pageIds.stream()
+                .map(storesById::get)
+                .filter(Objects::nonNull)
+                .toList();
+
+        List<StorePublicDto> storeList = pageRows.stream()
+                .map(storeMapper::toPublicDto)
+                .toList();
+
+        if (cursor == null) {
+            PaginatedResponseDto.MetaData meta = new PaginatedResponseDto.MetaData(page, limit, hits.size());
+            return new PaginatedResponseDto<>(meta, storeList);
+        }
+
+        String nextCursor = null;
+        if (to < hits.size()) {
+            StoreHit last = hits.get(to - 1);
+            nextCursor = new PageCursor(PageCursor.SIMILARITY, Double.toString(last.similarity()), last.id()).encode();
+        }
+        return new PaginatedResponseDto<>(PaginatedResponseDto.MetaData.ofCursor(limit, nextCursor), storeList);
+    }
+
+    /*
+     * O cursor guarda a similaridade e o id da última loja, não a posição: a próxima página começa na primeira loja
+     * depois desse par, mesmo que lojas novas tenham entrado na frente ou que a última tenha saído do resultado.
+     */
+    private static int searchPosition(List<StoreHit> hits, PageCursor after) {
+        if (!PageCursor.SIMILARITY.equals(after.sort())) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        int position = Collections.binarySearch(hits, new StoreHit(after.id(), after.score()), StoreHit.BY_SIMILARITY);
+        return position >= 0 ? position + 1 : -position - 1;
+    }
+
+    private PaginatedResponseDto<StorePublicDto> getStoresByCursor(int limit, String cursor) {
+        PageCursor after = PageCursor.decode(cursor);
+        List<Store> rows = storeRepository.findStoresAfterCursor(
+                after != null ? after.createdAt() : null,
+                after != null ? after.id() : null,
+                PageRequest.of(0, limit + 1));
+
+        boolean hasNext = rows.size() > limit;
+        List<Store> pageRows = hasNext ? rows.subList(0, limit) : rows;
+
+        String nextCursor = null;
+        if (hasNext) {
+            Store last = pageRows.get(pageRows.size() - 1);
+            nextCursor = new PageCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        List<StorePublicDto> storeList = pageRows.stream()
+                .map(storeMapper::toPublicDto)
+                .toList();
+
+        return new PaginatedResponseDto<>(PaginatedResponseDto.MetaData.ofCursor(limit, nextCursor), storeList);
+    }
+
     public StoreDetailDto getStoreById(UUID storeId) {
         storeLogger.info("Fetching store details for ID: {}", storeId);
         
-        Store store = storeRepository.findById(storeId)
+        return storeDetailCache.get(storeId, id -> storeRepository.findById(id)
+                .map(storeMapper::toDetailDto)
                 .orElseThrow(() -> {
-                    storeLogger.warn("Store not found with ID: {}", storeId);
-                    return new IllegalArgumentException("Store not found with id: " + storeId);
-                });
-
-        return storeMapper.toDetailDto(store);
-    }
-
-    public UUID getStoreIdByEmail(String email) {
-        Store store = storeRepository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("Store not found with email: " + email));
-        return store.getId();
+                    storeLogger.warn("Store not found with ID: {}", id);
+                    return new IllegalArgumentException("Store not found with id: " + id);
+                }));
     }
 }
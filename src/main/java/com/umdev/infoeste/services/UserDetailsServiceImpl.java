@@ -1,14 +1,19 @@
 package com.umdev.infoeste.services;
 
+import com.umdev.infoeste.entities.Store;
 import com.umdev.infoeste.repositories.StoreRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
     private final StoreRepository storeRepository;
+    private final Logger userDetailsLogger = LoggerFactory.getLogger(UserDetailsServiceImpl.class);
 
     public UserDetailsServiceImpl(StoreRepository storeRepository) {
         this.storeRepository = storeRepository;
@@ -19,5 +24,14 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         return storeRepository.findByEmail(username).
                 orElseThrow(() -> new UsernameNotFoundException(username));
     }
+
+    // Chamado pelo Spring Security após um login válido cujo hash usa um custo diferente do calibrado
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        Store store = (Store) user;
+        store.setPassword(newPassword);
+        userDetailsLogger.info("Password hash of store {} rehashed with the current BCrypt cost", store.getId());
+        return storeRepository.save(store);
+    }
 }
 
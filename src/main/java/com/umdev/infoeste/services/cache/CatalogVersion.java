@@ -0,0 +1,79 @@
+package com.umdev.infoeste.services.cache;
+
+import com.umdev.infoeste.events.ProductChangedEvent;
+import com.umdev.infoeste.events.StoreChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic versions of the catalog, bumped on every product or store change. Public GETs derive
+ * their ETags from these counters, so an unchanged poll is answered with 304 before any query runs.
+ * <p>
+ * The counters only see changes made through this instance, like the search indexes and the in-process
+ * caches. The application therefore assumes a single instance; as a fallback, every ETag also carries the
+ * current {@code catalog.etag.max-age} window, so a write this instance did not see is never answered
+ * with 304 for longer than that.
+ */
+@Component
+public class CatalogVersion {
+
+    // Começa no horário de subida para que um ETag emitido antes de um restart nunca volte a ser válido
+    private final long initialVersion = System.currentTimeMillis();
+
+    private final AtomicLong products = new AtomicLong(initialVersion);
+    private final AtomicLong stores = new AtomicLong(initialVersion);
+    private final Map<UUID, AtomicLong> productsByStore = new ConcurrentHashMap<>();
+    private final long maxAgeMillis;
+
+    public CatalogVersion(@Value("${catalog.etag.max-age}") Duration maxAge) {
+        if (maxAge.isZero() || maxAge.isNegative()) {
+            throw new IllegalArgumentException("catalog.etag.max-age must be positive");
+        }
+        this.maxAgeMillis = maxAge.toMillis();
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        products.incrementAndGet();
+        storeCounter(event.storeId()).incrementAndGet();
+    }
+
+    @EventListener
+    public void onStoreChanged(StoreChangedEvent event) {
+        stores.incrementAndGet();
+        // Listagens e detalhes de produto exibem o nome da loja
+        products.incrementAndGet();
+        storeCounter(event.storeId()).incrementAndGet();
+    }
+
+    public String productsETag(String resource) {
+        return eTag(products.get(), resource);
+    }
+
+    public String productsOfStoreETag(UUID storeId, String resource) {
+        AtomicLong counter = productsByStore.get(storeId);
+        return eTag(counter != null ? counter.get() : initialVersion, resource);
+    }
+
+    public String storesETag(String resource) {
+        return eTag(stores.get(), resource);
+    }
+
+    private AtomicLong storeCounter(UUID storeId) {
+        return productsByStore.computeIfAbsent(storeId, id -> new AtomicLong(initialVersion));
+    }
+
+    // A versão é lida antes da consulta: uma escrita concorrente só pode tornar a resposta mais nova que o ETag
+    private String eTag(long version, String resource) {
+        long window = System.currentTimeMillis() / maxAgeMillis;
+        return "\"" + Long.toHexString(version) + "-" + Long.toHexString(window) + "-"
+                + Integer.toHexString(resource.hashCode()) + "\"";
+    }
+}
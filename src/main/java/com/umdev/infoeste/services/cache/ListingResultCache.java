@@ -0,0 +1,89 @@
+package com.umdev.infoeste.services.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.umdev.infoeste.dto.PaginatedResponseDto;
+import com.umdev.infoeste.dto.ProductPublicDto;
+import com.umdev.infoeste.events.ProductChangedEvent;
+import com.umdev.infoeste.repositories.ProductSort;
+import com.umdev.infoeste.services.CategoryDictionary;
+import com.umdev.infoeste.services.ProductFilter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Result cache for product listing pages. Only the page metadata and the product ids are kept;
+ * a hit is rebuilt with a primary key lookup instead of the filtered, sorted query. Frequency-based
+ * admission keeps the popular pages cached while long-tail filters keep going to the database.
+ */
+@Component
+public class ListingResultCache {
+
+    public record ListingKey(ProductFilter filter, ProductSort sort, Integer page, int limit, String cursor,
+                             boolean includeTotal) {
+    }
+
+    public record CachedListing(PaginatedResponseDto.MetaData meta, List<UUID> ids) {
+    }
+
+    private final Cache<ListingKey, CachedListing> listings;
+    private final CategoryDictionary categoryDictionary;
+    private final AtomicLong generation = new AtomicLong();
+
+    public ListingResultCache(@Qualifier("productListingCache") Cache<ListingKey, CachedListing> listings,
+                              CategoryDictionary categoryDictionary) {
+        this.listings = listings;
+        this.categoryDictionary = categoryDictionary;
+    }
+
+    public PaginatedResponseDto<ProductPublicDto> get(ListingKey key,
+                                                      Function<List<UUID>, List<ProductPublicDto>> hydrator,
+                                                      Supplier<PaginatedResponseDto<ProductPublicDto>> loader) {
+        CachedListing cached = listings.getIfPresent(key);
+        if (cached != null) {
+            return new PaginatedResponseDto<>(cached.meta(), hydrator.apply(cached.ids()));
+        }
+
+        /*
+         * Como no cache de contagens: uma página lida durante uma escrita pode estar desatualizada e não fica guardada.
+         * A geração é conferida depois do put: uma escrita que a incrementou antes disso é vista aqui e a entrada sai;
+         * uma que a incrementa depois ainda vai passar pelo removeIf, que já encontra a entrada no cache.
+         */
+        long generationBefore = generation.get();
+        PaginatedResponseDto<ProductPublicDto> response = loader.get();
+        if (generation.get() == generationBefore) {
+            CachedListing entry = new CachedListing(response.meta(),
+                    response.data().stream().map(ProductPublicDto::id).toList());
+            listings.put(key, entry);
+            if (generation.get() != generationBefore) {
+                listings.asMap().remove(key, entry);
+            }
+        }
+        return response;
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        generation.incrementAndGet();
+        listings.asMap().keySet().removeIf(key -> isAffected(key.filter(), event));
+    }
+
+    // Só caem as páginas que podiam conter o produto: mesma loja (ou todas) e categoria antiga ou nova (ou todas)
+    private boolean isAffected(ProductFilter filter, ProductChangedEvent event) {
+        if (filter.storeId() != null && !filter.storeId().equals(event.storeId())) {
+            return false;
+        }
+        if (filter.category() == null) {
+            return true;
+        }
+        return categoryDictionary.findId(filter.category())
+                .map(event.categoryIds()::contains)
+                .orElse(false);
+    }
+}
@@ -0,0 +1,65 @@
+package com.umdev.infoeste.services.cache;
+
+import com.umdev.infoeste.events.ProductChangedEvent;
+import com.umdev.infoeste.services.ProductFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Short-lived cache for listing totals, so paging through the same filters does not repeat the
+ * {@code COUNT(*)} on every request. Entries of a store are dropped whenever one of its products changes.
+ */
+@Component
+public class ProductCountCache {
+
+    private record CachedCount(long count, long expiresAt) {
+    }
+
+    private final Map<ProductFilter, CachedCount> counts = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final long ttlNanos;
+    private final int maxEntries;
+
+    public ProductCountCache(@Value("${catalog.count-cache.ttl}") Duration ttl,
+                             @Value("${catalog.count-cache.max-entries}") int maxEntries) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+    }
+
+    public long get(ProductFilter filter, LongSupplier loader) {
+        long now = System.nanoTime();
+        CachedCount cached = counts.get(filter);
+        if (cached != null && cached.expiresAt() - now > 0) {
+            return cached.count();
+        }
+
+        // Se houver escrita durante a contagem o resultado pode estar desatualizado, então não fica guardado;
+        // a geração é conferida de novo depois do put porque a escrita pode chegar entre a conferência e o put
+        long generationBefore = generation.get();
+        long count = loader.getAsLong();
+        if (generation.get() == generationBefore) {
+            if (counts.size() >= maxEntries) {
+                counts.clear();
+            }
+            CachedCount entry = new CachedCount(count, now + ttlNanos);
+            counts.put(filter, entry);
+            if (generation.get() != generationBefore) {
+                counts.remove(filter, entry);
+            }
+        }
+        return count;
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        generation.incrementAndGet();
+        counts.keySet().removeIf(filter -> filter.storeId() == null || filter.storeId().equals(event.storeId()));
+    }
+}
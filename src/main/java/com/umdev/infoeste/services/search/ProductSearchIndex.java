@@ -0,0 +1,244 @@
+package com.umdev.infoeste.services.search;
+
+import com.umdev.infoeste.events.ProductChangedEvent;
+import com.umdev.infoeste.repositories.ProductRepository;
+import com.umdev.infoeste.repositories.projections.ProductSearchView;
+import com.umdev.infoeste.repositories.projections.ProductSortKey;
+import com.umdev.infoeste.utils.text.TextNormalizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over product name, category and description, ranked with BM25.
+ * Built once at startup and kept current from {@link ProductChangedEvent}s, so text search
+ * never has to scan the products table. Each entry also carries the store, category, price, name
+ * and creation date of the product, so listing filters and sorts are applied to every match
+ * before anything is paged.
+ */
+@Component
+public class ProductSearchIndex implements SmartInitializingSingleton {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Set<String> STOP_WORDS = Set.of("a", "o", "as", "os", "de", "da", "do", "das", "dos",
+            "e", "em", "com", "para", "por", "um", "uma");
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final int BUILD_BATCH_SIZE = 500;
+
+    /**
+     * A product matching a query, with its BM25 score and the attributes listing filters and sorts use.
+     */
+    public record SearchHit(UUID id, double score, UUID storeId, Integer categoryId, BigDecimal price, String name,
+                            LocalDateTime createdAt) implements ProductSortKey {
+
+        // Maior pontuação primeiro; o id desempata para a ordem ser estável entre páginas
+        public static final Comparator<SearchHit> BY_RELEVANCE = Comparator.comparingDouble(SearchHit::score).reversed()
+                .thenComparing(SearchHit::id);
+
+        @Override
+        public UUID getId() {
+            return id;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public BigDecimal getPrice() {
+            return price;
+        }
+
+        @Override
+        public LocalDateTime getCreatedAt() {
+            return createdAt;
+        }
+    }
+
+    private record IndexedProduct(Map<String, Integer> termFrequencies, int length, UUID storeId,
+                                  Integer categoryId, BigDecimal price, String name, LocalDateTime createdAt) {
+    }
+
+    // Termos ordenados permitem expandir prefixos ("note" -> "notebook") com um subMap
+    private final NavigableMap<String, Map<UUID, Integer>> postings = new TreeMap<>();
+    private final Map<UUID, IndexedProduct> products = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long totalLength;
+
+    private final ProductRepository productRepository;
+    private final Logger searchLogger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    public ProductSearchIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    // Roda antes do servidor web aceitar requisições, então nenhuma busca vê o índice vazio
+    @Override
+    public void afterSingletonsInstantiated() {
+        long start = System.nanoTime();
+        UUID afterId = null;
+        List<ProductSearchView> batch;
+        do {
+            batch = productRepository.findSearchViewsAfter(afterId, PageRequest.of(0, BUILD_BATCH_SIZE));
+            batch.forEach(this::index);
+            if (!batch.isEmpty()) {
+                afterId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == BUILD_BATCH_SIZE);
+
+        searchLogger.info("Product search index built with {} products and {} terms in {} ms",
+                products.size(), postings.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        productRepository.findSearchViewById(event.productId())
+                .ifPresentOrElse(this::index, () -> remove(event.productId()));
+    }
+
+    /**
+     * Returns every product matching all terms of the query and accepted by {@code filter}, best match first
+     * (see {@link SearchHit#BY_RELEVANCE}). The last characters of each term may be omitted: "note" also
+     * matches "notebook".
+     */
+    public List<SearchHit> search(String query, Predicate<SearchHit> filter) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<UUID, Double> scores = null;
+            for (String term : terms) {
+                Map<UUID, Double> termScores = scoreTerm(term);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    scores.keySet().retainAll(termScores.keySet());
+                    scores.replaceAll((id, score) -> score + termScores.get(id));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            List<SearchHit> hits = new ArrayList<>(scores.size());
+            for (Map.Entry<UUID, Double> entry : scores.entrySet()) {
+                IndexedProduct product = products.get(entry.getKey());
+                SearchHit hit = new SearchHit(entry.getKey(), entry.getValue(), product.storeId(),
+                        product.categoryId(), product.price(), product.name(), product.createdAt());
+                if (filter.test(hit)) {
+                    hits.add(hit);
+                }
+            }
+            hits.sort(SearchHit.BY_RELEVANCE);
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /*
+     * Um termo pode casar com vários termos do índice pelo prefixo; vale o de maior pontuação. Todos os termos
+     * do prefixo são expandidos: cortar a expansão perderia produtos antes dos filtros, e o total e as facetas
+     * ficariam errados. O custo fica limitado às postings dos termos expandidos, que já estão em memória.
+     */
+    private Map<UUID, Double> scoreTerm(String term) {
+        Map<UUID, Double> scores = new HashMap<>();
+        double averageLength = products.isEmpty() ? 1 : (double) totalLength / products.size();
+
+        for (Map.Entry<String, Map<UUID, Integer>> entry
+                : postings.subMap(term, true, term + Character.MAX_VALUE, false).entrySet()) {
+            Map<UUID, Integer> matches = entry.getValue();
+            double idf = Math.log(1 + (products.size() - matches.size() + 0.5) / (matches.size() + 0.5));
+
+            for (Map.Entry<UUID, Integer> match : matches.entrySet()) {
+                int frequency = match.getValue();
+                int length = products.get(match.getKey()).length();
+                double score = idf * frequency * (K1 + 1)
+                        / (frequency + K1 * (1 - B + B * length / averageLength));
+                scores.merge(match.getKey(), score, Math::max);
+            }
+        }
+        return scores;
+    }
+
+    private void index(ProductSearchView product) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = addTerms(frequencies, product.getName(), NAME_WEIGHT)
+                + addTerms(frequencies, product.getCategory(), CATEGORY_WEIGHT)
+                + addTerms(frequencies, product.getDescription(), DESCRIPTION_WEIGHT);
+
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(product.getId());
+            products.put(product.getId(), new IndexedProduct(frequencies, length, product.getStoreId(),
+                    product.getCategoryId(), product.getPrice(), product.getName(), product.getCreatedAt()));
+            totalLength += length;
+            frequencies.forEach((term, frequency) ->
+                    postings.computeIfAbsent(term, key -> new HashMap<>()).put(product.getId(), frequency));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(UUID productId) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeUnlocked(UUID productId) {
+        IndexedProduct previous = products.remove(productId);
+        if (previous == null) {
+            return;
+        }
+        totalLength -= previous.length();
+        for (String term : previous.termFrequencies().keySet()) {
+            Map<UUID, Integer> matches = postings.get(term);
+            matches.remove(productId);
+            if (matches.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    // Cada ocorrência conta com o peso do campo: o nome pesa mais que a descrição
+    private static int addTerms(Map<String, Integer> frequencies, String text, int weight) {
+        List<String> terms = tokenize(text);
+        terms.forEach(term -> frequencies.merge(term, weight, Integer::sum));
+        return terms.size() * weight;
+    }
+
+    private static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(TOKEN_SEPARATOR.split(TextNormalizer.fold(text)))
+                .filter(term -> !term.isEmpty() && !STOP_WORDS.contains(term))
+                .toList();
+    }
+}
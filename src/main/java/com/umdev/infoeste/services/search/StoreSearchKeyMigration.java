@@ -0,0 +1,43 @@
+package com.umdev.infoeste.services.search;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Drops the {@code stores.search_name} and {@code stores.search_city} columns (and, with them, their
+ * single-column indexes). Store search now goes through {@link StoreTrigramIndex}, and
+ * {@code ddl-auto=update} never removes columns on its own. A build that still uses them recreates and
+ * backfills the columns at startup, so dropping them does not block a rollback.
+ */
+@Component
+public class StoreSearchKeyMigration {
+
+    private static final List<String> LEGACY_COLUMNS = List.of("search_name", "search_city");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Logger migrationLogger = LoggerFactory.getLogger(StoreSearchKeyMigration.class);
+
+    public StoreSearchKeyMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        for (String column : LEGACY_COLUMNS) {
+            Integer legacyColumns = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM information_schema.columns " +
+                    "WHERE table_schema = DATABASE() AND table_name = 'stores' AND column_name = ?",
+                    Integer.class, column);
+            if (legacyColumns == null || legacyColumns == 0) {
+                continue;
+            }
+            jdbcTemplate.execute("ALTER TABLE stores DROP COLUMN " + column);
+            migrationLogger.info("Legacy stores.{} column dropped", column);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.umdev.infoeste.services.search;
+
+import com.umdev.infoeste.events.StoreChangedEvent;
+import com.umdev.infoeste.repositories.StoreRepository;
+import com.umdev.infoeste.repositories.projections.StoreSearchView;
+import com.umdev.infoeste.utils.text.TextNormalizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Trigram index over store name and city. A store matches when enough of the query's trigrams
+ * appear in its name or in its city, each field scored on its own, which tolerates typos such as
+ * "Presidente Prudnete".
+ */
+@Component
+public class StoreTrigramIndex implements SmartInitializingSingleton {
+
+    private static final int BUILD_BATCH_SIZE = 500;
+
+    // Peso da similaridade de Jaccard no desempate entre lojas com a mesma cobertura
+    private static final double JACCARD_WEIGHT = 0.1;
+
+    private record IndexedStore(Set<String> nameTrigrams, Set<String> cityTrigrams) {
+    }
+
+    /**
+     * A store matching a query. The similarity depends only on the query and on the store's own name
+     * and city, so it stays valid as a cursor key while other stores are added or changed.
+     */
+    public record StoreHit(UUID id, double similarity) {
+
+        // Mais parecida primeiro; o id desempata para a ordem ser estável entre páginas
+        public static final Comparator<StoreHit> BY_SIMILARITY = Comparator.comparingDouble(StoreHit::similarity)
+                .reversed()
+                .thenComparing(StoreHit::id);
+    }
+
+    private final Map<String, Set<UUID>> postings = new HashMap<>();
+    private final Map<UUID, IndexedStore> stores = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final StoreRepository storeRepository;
+    private final double minSimilarity;
+    private final int maxResults;
+    private final Logger searchLogger = LoggerFactory.getLogger(StoreTrigramIndex.class);
+
+    public StoreTrigramIndex(StoreRepository storeRepository,
+                             @Value("${search.stores.min-similarity}") double minSimilarity,
+                             @Value("${search.stores.max-results}") int maxResults) {
+        this.storeRepository = storeRepository;
+        this.minSimilarity = minSimilarity;
+        this.maxResults = maxResults;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long start = System.nanoTime();
+        UUID afterId = null;
+        List<StoreSearchView> batch;
+        do {
+            batch = storeRepository.findSearchViewsAfter(afterId, PageRequest.of(0, BUILD_BATCH_SIZE));
+            batch.forEach(this::index);
+            if (!batch.isEmpty()) {
+                afterId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == BUILD_BATCH_SIZE);
+
+        searchLogger.info("Store trigram index built with {} stores in {} ms",
+                stores.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @EventListener
+    public void onStoreChanged(StoreChangedEvent event) {
+        storeRepository.findSearchViewById(event.storeId()).ifPresent(this::index);
+    }
+
+    /**
+     * Returns the stores similar to the query, most similar first (see {@link StoreHit#BY_SIMILARITY}).
+     * The score is the share of the query's trigrams found in the store's name or in its city,
+     * whichever is higher.
+     */
+    public List<StoreHit> search(String query) {
+        Set<String> queryTrigrams = trigrams(query);
+        if (queryTrigrams.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<UUID, Integer> hits = new HashMap<>();
+            for (String trigram : queryTrigrams) {
+                for (UUID id : postings.getOrDefault(trigram, Set.of())) {
+                    hits.merge(id, 1, Integer::sum);
+                }
+            }
+
+            List<StoreHit> matches = new ArrayList<>();
+            for (Map.Entry<UUID, Integer> entry : hits.entrySet()) {
+                // Os acertos somam nome e cidade, então são um teto para a cobertura de cada campo
+                if ((double) entry.getValue() / queryTrigrams.size() < minSimilarity) {
+                    continue;
+                }
+                IndexedStore store = stores.get(entry.getKey());
+                double coverage = Math.max(coverage(queryTrigrams, store.nameTrigrams()),
+                        coverage(queryTrigrams, store.cityTrigrams()));
+                if (coverage < minSimilarity) {
+                    continue;
+                }
+                double jaccard = Math.max(jaccard(queryTrigrams, store.nameTrigrams()),
+                        jaccard(queryTrigrams, store.cityTrigrams()));
+                matches.add(new StoreHit(entry.getKey(), coverage + JACCARD_WEIGHT * jaccard));
+            }
+
+            return matches.stream()
+                    .sorted(StoreHit.BY_SIMILARITY)
+                    .limit(maxResults)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void index(StoreSearchView store) {
+        IndexedStore indexed = new IndexedStore(trigrams(store.getName()), trigrams(store.getCity()));
+
+        lock.writeLock().lock();
+        try {
+            IndexedStore previous = stores.put(store.getId(), indexed);
+            if (previous != null) {
+                removePostings(store.getId(), previous.nameTrigrams());
+                removePostings(store.getId(), previous.cityTrigrams());
+            }
+            addPostings(store.getId(), indexed.nameTrigrams());
+            addPostings(store.getId(), indexed.cityTrigrams());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addPostings(UUID storeId, Set<String> trigrams) {
+        for (String trigram : trigrams) {
+            postings.computeIfAbsent(trigram, key -> new HashSet<>()).add(storeId);
+        }
+    }
+
+    private void removePostings(UUID storeId, Set<String> trigrams) {
+        for (String trigram : trigrams) {
+            Set<UUID> ids = postings.get(trigram);
+            if (ids != null && ids.remove(storeId) && ids.isEmpty()) {
+                postings.remove(trigram);
+            }
+        }
+    }
+
+    private static double coverage(Set<String> query, Set<String> field) {
+        return (double) common(query, field) / query.size();
+    }
+
+    private static double jaccard(Set<String> query, Set<String> field) {
+        if (field.isEmpty()) {
+            return 0;
+        }
+        int common = common(query, field);
+        return (double) common / (query.size() + field.size() - common);
+    }
+
+    private static int common(Set<String> query, Set<String> field) {
+        int common = 0;
+        for (String trigram : query) {
+            if (field.contains(trigram)) {
+                common++;
+            }
+        }
+        return common;
+    }
+
+    // Cada palavra ganha dois espaços antes e um depois, como no pg_trgm: "cafe" -> "  c", " ca", "caf", "afe", "fe "
+    private static Set<String> trigrams(String text) {
+        String folded = TextNormalizer.fold(text);
+        if (folded == null || folded.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> trigrams = new HashSet<>();
+        for (String word : folded.split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+        }
+        return trigrams;
+    }
+}
@@ -0,0 +1,196 @@
+package com.umdev.infoeste.services.search;
+
+import com.umdev.infoeste.dto.SuggestionDto;
+import com.umdev.infoeste.events.ProductChangedEvent;
+import com.umdev.infoeste.events.StoreChangedEvent;
+import com.umdev.infoeste.repositories.ProductRepository;
+import com.umdev.infoeste.repositories.StoreRepository;
+import com.umdev.infoeste.repositories.projections.ProductSearchView;
+import com.umdev.infoeste.repositories.projections.StoreSearchView;
+import com.umdev.infoeste.utils.text.TextNormalizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Sorted map of folded product names, categories and store names used by the search box
+ * typeahead. Every word start of a text is a key, so "queijo" also suggests "Pão de queijo".
+ * Reads never lock; writes come from startup and from product/store change events.
+ */
+@Component
+public class SuggestionIndex implements SmartInitializingSingleton {
+
+    private static final int BUILD_BATCH_SIZE = 500;
+    private static final int MAX_CANDIDATES = 200;
+
+    private record CategoryUsage(SuggestionDto suggestion, int products) {
+    }
+
+    private final NavigableMap<String, Set<SuggestionDto>> entries = new ConcurrentSkipListMap<>();
+
+    // Estado usado só nas escritas (sincronizadas) para saber o que remover quando algo muda
+    private final Map<UUID, SuggestionDto> products = new HashMap<>();
+    private final Map<UUID, String> productCategories = new HashMap<>();
+    private final Map<String, CategoryUsage> categories = new HashMap<>();
+    private final Map<UUID, SuggestionDto> stores = new HashMap<>();
+
+    private final ProductRepository productRepository;
+    private final StoreRepository storeRepository;
+    private final Logger suggestionLogger = LoggerFactory.getLogger(SuggestionIndex.class);
+
+    public SuggestionIndex(ProductRepository productRepository, StoreRepository storeRepository) {
+        this.productRepository = productRepository;
+        this.storeRepository = storeRepository;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long start = System.nanoTime();
+
+        UUID afterId = null;
+        List<ProductSearchView> productBatch;
+        do {
+            productBatch = productRepository.findSearchViewsAfter(afterId, PageRequest.of(0, BUILD_BATCH_SIZE));
+            productBatch.forEach(this::putProduct);
+            if (!productBatch.isEmpty()) {
+                afterId = productBatch.get(productBatch.size() - 1).getId();
+            }
+        } while (productBatch.size() == BUILD_BATCH_SIZE);
+
+        afterId = null;
+        List<StoreSearchView> storeBatch;
+        do {
+            storeBatch = storeRepository.findSearchViewsAfter(afterId, PageRequest.of(0, BUILD_BATCH_SIZE));
+            storeBatch.forEach(this::putStore);
+            if (!storeBatch.isEmpty()) {
+                afterId = storeBatch.get(storeBatch.size() - 1).getId();
+            }
+        } while (storeBatch.size() == BUILD_BATCH_SIZE);
+
+        suggestionLogger.info("Suggestion index built with {} keys in {} ms",
+                entries.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        productRepository.findSearchViewById(event.productId())
+                .ifPresentOrElse(this::putProduct, () -> removeProduct(event.productId()));
+    }
+
+    @EventListener
+    public void onStoreChanged(StoreChangedEvent event) {
+        storeRepository.findSearchViewById(event.storeId()).ifPresent(this::putStore);
+    }
+
+    /**
+     * Returns up to {@code limit} suggestions whose text, or one of its words, starts with the prefix.
+     * Texts that start with the prefix come first, then the shorter ones.
+     */
+    public List<SuggestionDto> suggest(String prefix, int limit) {
+        String key = TextNormalizer.fold(prefix);
+        if (key == null || key.isEmpty()) {
+            return List.of();
+        }
+
+        Set<SuggestionDto> candidates = new LinkedHashSet<>();
+        for (Set<SuggestionDto> suggestions : entries.subMap(key, true, key + Character.MAX_VALUE, false).values()) {
+            candidates.addAll(suggestions);
+            if (candidates.size() >= MAX_CANDIDATES) {
+                break;
+            }
+        }
+
+        return candidates.stream()
+                .sorted(Comparator.comparing((SuggestionDto suggestion) -> !TextNormalizer.fold(suggestion.text()).startsWith(key))
+                        .thenComparingInt(suggestion -> suggestion.text().length())
+                        .thenComparing(SuggestionDto::text))
+                .limit(limit)
+                .toList();
+    }
+
+    private synchronized void putProduct(ProductSearchView product) {
+        removeProduct(product.getId());
+
+        SuggestionDto suggestion = new SuggestionDto(product.getName(), SuggestionDto.Type.PRODUCT, product.getId());
+        products.put(product.getId(), suggestion);
+        add(suggestion);
+
+        String category = TextNormalizer.fold(product.getCategory());
+        if (category != null && !category.isEmpty()) {
+            productCategories.put(product.getId(), category);
+            CategoryUsage usage = categories.get(category);
+            if (usage == null) {
+                SuggestionDto categorySuggestion = new SuggestionDto(product.getCategory().strip(), SuggestionDto.Type.CATEGORY, null);
+                categories.put(category, new CategoryUsage(categorySuggestion, 1));
+                add(categorySuggestion);
+            } else {
+                categories.put(category, new CategoryUsage(usage.suggestion(), usage.products() + 1));
+            }
+        }
+    }
+
+    private synchronized void removeProduct(UUID productId) {
+        SuggestionDto previous = products.remove(productId);
+        if (previous != null) {
+            remove(previous);
+        }
+
+        // A categoria só sai das sugestões quando nenhum produto a usa mais
+        String category = productCategories.remove(productId);
+        if (category != null) {
+            CategoryUsage usage = categories.get(category);
+            if (usage.products() == 1) {
+                categories.remove(category);
+                remove(usage.suggestion());
+            } else {
+                categories.put(category, new CategoryUsage(usage.suggestion(), usage.products() - 1));
+            }
+        }
+    }
+
+    private synchronized void putStore(StoreSearchView store) {
+        SuggestionDto previous = stores.get(store.getId());
+        if (previous != null) {
+            remove(previous);
+        }
+        SuggestionDto suggestion = new SuggestionDto(store.getName(), SuggestionDto.Type.STORE, store.getId());
+        stores.put(store.getId(), suggestion);
+        add(suggestion);
+    }
+
+    private void add(SuggestionDto suggestion) {
+        for (String key : keys(suggestion.text())) {
+            entries.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(suggestion);
+        }
+    }
+
+    private void remove(SuggestionDto suggestion) {
+        for (String key : keys(suggestion.text())) {
+            entries.computeIfPresent(key, (k, suggestions) -> {
+                suggestions.remove(suggestion);
+                return suggestions.isEmpty() ? null : suggestions;
+            });
+        }
+    }
+
+    // "pao de queijo" gera as chaves "pao de queijo", "de queijo" e "queijo"
+    private static List<String> keys(String text) {
+        String folded = TextNormalizer.fold(text);
+        if (folded == null || folded.isEmpty()) {
+            return List.of();
+        }
+        List<String> keys = new ArrayList<>();
+        keys.add(folded);
+        for (int i = folded.indexOf(' '); i >= 0; i = folded.indexOf(' ', i + 1)) {
+            keys.add(folded.substring(i + 1));
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,59 @@
+package com.umdev.infoeste.services.storage;
+
+import com.umdev.infoeste.repositories.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Removes stored images that no product references any more. Blobs are content-addressed and may be
+ * shared, so products never delete them inline; a blob stored or reused within the grace period is
+ * kept, which covers an upload whose product row has not been saved yet.
+ */
+@Component
+public class ImageGarbageCollector {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final ImageStorage imageStorage;
+    private final ProductRepository productRepository;
+    private final Duration gracePeriod;
+    private final Logger gcLogger = LoggerFactory.getLogger(ImageGarbageCollector.class);
+
+    public ImageGarbageCollector(ImageStorage imageStorage, ProductRepository productRepository,
+                                 @Value("${storage.images.gc.grace-period}") Duration gracePeriod) {
+        this.imageStorage = imageStorage;
+        this.productRepository = productRepository;
+        this.gracePeriod = gracePeriod;
+    }
+
+    @Scheduled(initialDelayString = "${storage.images.gc.interval}", fixedDelayString = "${storage.images.gc.interval}")
+    public void sweep() {
+        Instant cutoff = Instant.now().minus(gracePeriod);
+        List<String> candidates = imageStorage.findKeysOlderThan(cutoff);
+
+        int deleted = 0;
+        for (int from = 0; from < candidates.size(); from += BATCH_SIZE) {
+            List<String> batch = candidates.subList(from, Math.min(from + BATCH_SIZE, candidates.size()));
+            Set<String> referenced = new HashSet<>(productRepository.findImageKeysIn(batch));
+            for (String key : batch) {
+                // A referência é conferida de novo sob o lock da chave, junto com a remoção
+                if (!referenced.contains(key)
+                        && imageStorage.deleteIfUnused(key, cutoff, productRepository::existsByImageKey)) {
+                    deleted++;
+                }
+            }
+        }
+        if (deleted > 0) {
+            gcLogger.info("Image garbage collection removed {} unused images out of {} checked", deleted, candidates.size());
+        }
+    }
+}
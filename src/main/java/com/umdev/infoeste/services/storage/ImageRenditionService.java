@@ -0,0 +1,136 @@
+package com.umdev.infoeste.services.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class ImageRenditionService {
+
+    private static final List<ImageSize> RENDITIONS = List.of(ImageSize.MEDIUM, ImageSize.SMALL);
+    private static final Set<String> DECODABLE_TYPES = Set.of("image/jpeg", "image/png");
+
+    private final ImageStorage imageStorage;
+    private final TaskExecutor imageProcessingExecutor;
+    private final Set<String> inProgress = ConcurrentHashMap.newKeySet();
+    private final Logger renditionLogger = LoggerFactory.getLogger(ImageRenditionService.class);
+
+    public ImageRenditionService(ImageStorage imageStorage,
+                                 @Qualifier("imageProcessingExecutor") TaskExecutor imageProcessingExecutor) {
+        this.imageStorage = imageStorage;
+        this.imageProcessingExecutor = imageProcessingExecutor;
+    }
+
+    public boolean supports(String contentType) {
+        return DECODABLE_TYPES.contains(contentType);
+    }
+
+    public void generateAsync(String key, String contentType) {
+        if (!supports(contentType) || !inProgress.add(key)) {
+            return;
+        }
+        try {
+            imageProcessingExecutor.execute(() -> {
+                try {
+                    generate(key);
+                } catch (Exception e) {
+                    renditionLogger.error("Error generating renditions for image {}", key, e);
+                } finally {
+                    inProgress.remove(key);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            // Miniaturas são opcionais: a tarefa é descartada e a próxima leitura da imagem agenda de novo
+            inProgress.remove(key);
+            renditionLogger.warn("Image processing queue is full, skipping renditions for image {}", key);
+        }
+    }
+
+    private void generate(String key) throws IOException {
+        long start = System.nanoTime();
+        BufferedImage source = decode(key, RENDITIONS.get(0).getWidth());
+        if (source == null) {
+            renditionLogger.warn("Image {} could not be decoded, renditions skipped", key);
+            return;
+        }
+
+        for (ImageSize size : RENDITIONS) {
+            // Imagens menores que a miniatura também ganham a rendição, na largura original: assim a leitura
+            // encontra o arquivo e não agenda a geração de novo a cada requisição
+            source = scaleToWidth(source, Math.min(source.getWidth(), size.getWidth()));
+            imageStorage.storeRendition(key, size, encodeJpeg(source));
+        }
+        renditionLogger.info("Renditions generated for image {} in {} ms", key, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Decodifica com subamostragem para não alocar o bitmap inteiro de fotos grandes
+    private BufferedImage decode(String key, int targetWidth) throws IOException {
+        try (InputStream in = imageStorage.load(key).getInputStream();
+             ImageInputStream imageInput = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInput);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInput, true, true);
+                int subsampling = Math.max(1, reader.getWidth(0) / (targetWidth * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage scaleToWidth(BufferedImage source, int targetWidth) {
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+
+        // Reduz pela metade em etapas para evitar serrilhado em reduções grandes
+        do {
+            width = Math.max(width / 2, targetWidth);
+            height = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+
+            BufferedImage step = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = step.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, width, height);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = step;
+        } while (width > targetWidth);
+
+        return current;
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,36 @@
+package com.umdev.infoeste.services.storage;
+
+import java.util.Arrays;
+
+public enum ImageSize {
+    SMALL("160", 160),
+    MEDIUM("480", 480),
+    ORIGINAL("original", 0);
+
+    private final String param;
+    private final int width;
+
+    ImageSize(String param, int width) {
+        this.param = param;
+        this.width = width;
+    }
+
+    public String getParam() {
+        return param;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public static ImageSize fromParam(String param) {
+        if (param == null || param.isBlank()) {
+            return ORIGINAL;
+        }
+        return Arrays.stream(values())
+                .filter(size -> size.param.equalsIgnoreCase(param.trim()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Invalid image size: " + param
+                        + ". Allowed values: 160, 480, original"));
+    }
+}
@@ -0,0 +1,41 @@
+package com.umdev.infoeste.services.storage;
+
+import org.springframework.core.io.Resource;
+
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+public interface ImageStorage {
+
+    /**
+     * Streams the image content to storage and returns its content-addressed key (SHA-256 hex).
+     * Storing the same content twice yields the same key and a single copy on disk, and refreshes
+     * the blob's timestamp so a concurrent {@link #deleteIfUnused} leaves it alone.
+     */
+    String store(InputStream content);
+
+    Resource load(String key);
+
+    boolean exists(String key);
+
+    void storeRendition(String key, ImageSize size, byte[] content);
+
+    Optional<Resource> loadRendition(String key, ImageSize size);
+
+    /**
+     * Keys of the originals last stored (or reused by {@link #store}) before {@code cutoff}.
+     */
+    List<String> findKeysOlderThan(Instant cutoff);
+
+    /**
+     * Removes the original image and every rendition generated from it, unless it was stored again
+     * after {@code cutoff} or {@code inUse} still reports a reference to it. The check and the removal
+     * are atomic with respect to {@link #store} of the same content.
+     *
+     * @return whether the image was removed
+     */
+    boolean deleteIfUnused(String key, Instant cutoff, Predicate<String> inUse);
+}
@@ -0,0 +1,42 @@
+package com.umdev.infoeste.services.storage;
+
+import java.util.Optional;
+
+public final class ImageTypeDetector {
+
+    public static final int HEADER_LENGTH = 12;
+
+    private static final byte[] JPEG = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF};
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] RIFF = {'R', 'I', 'F', 'F'};
+    private static final byte[] WEBP = {'W', 'E', 'B', 'P'};
+
+    private ImageTypeDetector() {
+    }
+
+    // Identifica o formato pelos primeiros bytes do arquivo, sem confiar no Content-Type enviado pelo cliente
+    public static Optional<String> detect(byte[] header) {
+        if (startsWith(header, 0, JPEG)) {
+            return Optional.of("image/jpeg");
+        }
+        if (startsWith(header, 0, PNG)) {
+            return Optional.of("image/png");
+        }
+        if (startsWith(header, 0, RIFF) && startsWith(header, 8, WEBP)) {
+            return Optional.of("image/webp");
+        }
+        return Optional.empty();
+    }
+
+    private static boolean startsWith(byte[] data, int offset, byte[] signature) {
+        if (data.length < offset + signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if (data[offset + i] != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
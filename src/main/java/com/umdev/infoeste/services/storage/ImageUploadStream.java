@@ -0,0 +1,83 @@
+package com.umdev.infoeste.services.storage;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Wraps an upload while it is copied to storage: checks the magic bytes as soon as the
+ * header has been read and aborts once the stream goes past the size limit, so invalid
+ * uploads are rejected without ever being held in memory.
+ */
+public class ImageUploadStream extends FilterInputStream {
+
+    private final long maxBytes;
+    private final byte[] header = new byte[ImageTypeDetector.HEADER_LENGTH];
+    private long bytesRead;
+    private String detectedType;
+
+    public ImageUploadStream(InputStream in, long maxBytes) {
+        super(in);
+        this.maxBytes = maxBytes;
+    }
+
+    public String getDetectedType() {
+        if (detectedType == null) {
+            detectType();
+        }
+        return detectedType;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b == -1) {
+            getDetectedType();
+        } else {
+            inspect(new byte[]{(byte) b}, 0, 1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        if (read == -1) {
+            getDetectedType();
+        } else {
+            inspect(buffer, offset, read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        throw new IOException("skip is not supported on image uploads");
+    }
+
+    private void inspect(byte[] buffer, int offset, int length) {
+        if (bytesRead < header.length) {
+            int headerBytes = (int) Math.min(length, header.length - bytesRead);
+            System.arraycopy(buffer, offset, header, (int) bytesRead, headerBytes);
+        }
+        bytesRead += length;
+
+        if (bytesRead > maxBytes) {
+            throw new IllegalArgumentException("Image file size exceeds " + maxBytes / (1024 * 1024) + "MB limit");
+        }
+        if (detectedType == null && bytesRead >= header.length) {
+            detectType();
+        }
+    }
+
+    private void detectType() {
+        byte[] available = bytesRead >= header.length ? header : Arrays.copyOf(header, (int) bytesRead);
+        detectedType = ImageTypeDetector.detect(available)
+                .orElseThrow(() -> new IllegalArgumentException("Only JPG, PNG, and WEBP images are allowed"));
+    }
+}
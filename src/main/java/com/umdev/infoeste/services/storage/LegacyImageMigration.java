@@ -0,0 +1,64 @@
+package com.umdev.infoeste.services.storage;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Moves images still kept in the old {@code products.image_base64} column into the
+ * {@link ImageStorage} and drops the column once every row has an image key.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class LegacyImageMigration {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ImageStorage imageStorage;
+    private final Logger migrationLogger = LoggerFactory.getLogger(LegacyImageMigration.class);
+
+    public LegacyImageMigration(JdbcTemplate jdbcTemplate, ImageStorage imageStorage) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.imageStorage = imageStorage;
+    }
+
+    // Roda na criação do bean, depois de o Hibernate atualizar o schema e antes de o servidor aceitar requisições
+    @PostConstruct
+    public void migrate() {
+        Integer legacyColumns = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.columns " +
+                "WHERE table_schema = DATABASE() AND table_name = 'products' AND column_name = 'image_base64'",
+                Integer.class);
+        if (legacyColumns == null || legacyColumns == 0) {
+            return;
+        }
+
+        migrationLogger.info("Legacy image_base64 column found, migrating images to storage...");
+        jdbcTemplate.execute("ALTER TABLE products MODIFY image_base64 LONGTEXT NULL");
+
+        // Busca só os ids primeiro para não trazer todos os LOBs para a memória de uma vez
+        List<Object> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM products WHERE image_base64 IS NOT NULL AND (image_key IS NULL OR image_key = '')",
+                Object.class);
+
+        for (Object id : ids) {
+            String base64 = jdbcTemplate.queryForObject(
+                    "SELECT image_base64 FROM products WHERE id = ?", String.class, id);
+            byte[] content = Base64.getDecoder().decode(base64);
+            String contentType = ImageTypeDetector.detect(content).orElse("image/jpeg");
+            String key = imageStorage.store(new ByteArrayInputStream(content));
+            jdbcTemplate.update("UPDATE products SET image_key = ?, image_content_type = ?, image_base64 = NULL WHERE id = ?",
+                    key, contentType, id);
+        }
+        migrationLogger.info("Migrated {} product images to storage", ids.size());
+
+        jdbcTemplate.execute("ALTER TABLE products DROP COLUMN image_base64");
+        migrationLogger.info("Legacy image_base64 column dropped");
+    }
+}
@@ -0,0 +1,230 @@
+package com.umdev.infoeste.services.storage;
+
+import com.umdev.infoeste.utils.exceptions.FileProcessingException;
+import com.umdev.infoeste.utils.exceptions.ResourceNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+@Component
+public class LocalImageStorage implements ImageStorage {
+
+    private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+    private static final int LOCK_STRIPES = 64;
+
+    private final Path root;
+    private final Path uploads;
+    // Serializa, por chave, a gravação de um blob e a sua remoção pela coleta de imagens sem uso
+    private final Lock[] locks = new Lock[LOCK_STRIPES];
+    private final Logger storageLogger = LoggerFactory.getLogger(LocalImageStorage.class);
+
+    public LocalImageStorage(@Value("${storage.images.location}") String location) {
+        this.root = Path.of(location).toAbsolutePath().normalize();
+        this.uploads = root.resolve("uploads");
+        try {
+            Files.createDirectories(uploads);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not create image storage directory: " + root, e);
+        }
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        storageLogger.info("Local image storage initialized at {}", root);
+    }
+
+    @Override
+    public String store(InputStream content) {
+        MessageDigest digest = sha256();
+        Path temp = null;
+        long size = 0;
+
+        try {
+            // Grava em arquivo temporário enquanto calcula o hash: a chave só é conhecida no fim do stream
+            temp = Files.createTempFile(uploads, "upload-", ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = content.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                    size += read;
+                }
+            }
+
+            String key = HexFormat.of().formatHex(digest.digest());
+            Path target = resolve(key);
+            Lock lock = lockFor(key);
+            lock.lock();
+            try {
+                if (Files.exists(target)) {
+                    // Renova a data do blob reaproveitado: a coleta não o remove antes de o produto ser salvo
+                    Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+                    storageLogger.info("Image {} already stored, reusing existing blob", key);
+                    return key;
+                }
+
+                Files.createDirectories(target.getParent());
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                lock.unlock();
+            }
+            storageLogger.info("Image {} stored ({} bytes)", key, size);
+            return key;
+        } catch (IOException e) {
+            storageLogger.error("Error writing uploaded image to storage", e);
+            throw new FileProcessingException("Error storing image file", e);
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    @Override
+    public Resource load(String key) {
+        Path path = resolve(key);
+        if (!Files.isRegularFile(path)) {
+            throw new ResourceNotFoundException("Image not found: " + key);
+        }
+        return new FileSystemResource(path);
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.isRegularFile(resolve(key));
+    }
+
+    @Override
+    public void storeRendition(String key, ImageSize size, byte[] content) {
+        Path target = resolveRendition(key, size);
+        try {
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), key, ".tmp");
+            try {
+                Files.write(temp, content);
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            storageLogger.error("Error writing {}px rendition of image {}", size.getWidth(), key, e);
+            throw new FileProcessingException("Error storing image rendition", e);
+        }
+    }
+
+    @Override
+    public Optional<Resource> loadRendition(String key, ImageSize size) {
+        if (size == ImageSize.ORIGINAL) {
+            return Optional.of(load(key));
+        }
+        Path path = resolveRendition(key, size);
+        return Files.isRegularFile(path) ? Optional.of(new FileSystemResource(path)) : Optional.empty();
+    }
+
+    @Override
+    public List<String> findKeysOlderThan(Instant cutoff) {
+        try (Stream<Path> files = Files.walk(root)) {
+            return files
+                    .filter(path -> !path.startsWith(uploads))
+                    .filter(path -> KEY_PATTERN.matcher(path.getFileName().toString()).matches())
+                    .filter(path -> lastModified(path).isBefore(cutoff))
+                    .map(path -> path.getFileName().toString())
+                    .toList();
+        } catch (IOException e) {
+            storageLogger.warn("Could not list stored images: {}", e.getMessage());
+            return List.of();
+        }
+    }
+
+    @Override
+    public boolean deleteIfUnused(String key, Instant cutoff, Predicate<String> inUse) {
+        Path path = resolve(key);
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            if (!Files.isRegularFile(path) || !lastModified(path).isBefore(cutoff) || inUse.test(key)) {
+                return false;
+            }
+            Files.deleteIfExists(path);
+            for (ImageSize size : ImageSize.values()) {
+                if (size != ImageSize.ORIGINAL) {
+                    Files.deleteIfExists(resolveRendition(key, size));
+                }
+            }
+            storageLogger.info("Image {} deleted", key);
+            return true;
+        } catch (IOException e) {
+            storageLogger.warn("Could not delete image {}: {}", key, e.getMessage());
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Espalha os arquivos em subpastas (ab/cd/abcd...) para não acumular tudo em um único diretório
+    private Path resolve(String key) {
+        if (key == null || !KEY_PATTERN.matcher(key).matches()) {
+            throw new IllegalArgumentException("Invalid image key");
+        }
+        return root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+    }
+
+    private Path resolveRendition(String key, ImageSize size) {
+        Path original = resolve(key);
+        return original.resolveSibling(key + "-" + size.getWidth() + ".jpg");
+    }
+
+    private Lock lockFor(String key) {
+        return locks[Math.floorMod(key.hashCode(), LOCK_STRIPES)];
+    }
+
+    // Arquivo que sumiu durante a listagem conta como recente: fica para a próxima coleta
+    private Instant lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toInstant();
+        } catch (IOException e) {
+            return Instant.MAX;
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            storageLogger.warn("Could not delete temporary file {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.umdev.infoeste.services.storage;
+
+import org.springframework.core.io.Resource;
+
+/**
+ * Image bytes served for a product. {@code provisional} is set when a rendition was requested but the
+ * original is served in its place until the rendition is generated, so the response must not be cached
+ * as the final content of that size.
+ */
+public record StoredImage(
+        String key,
+        String contentType,
+        Resource resource,
+        boolean provisional
+) {
+}
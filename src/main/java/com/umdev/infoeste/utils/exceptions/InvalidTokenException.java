@@ -0,0 +1,7 @@
+package com.umdev.infoeste.utils.exceptions;
+
+public class InvalidTokenException extends RuntimeException {
+    public InvalidTokenException(String message) {
+        super(message);
+    }
+}
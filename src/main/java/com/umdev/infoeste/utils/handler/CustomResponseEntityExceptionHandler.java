@@ -56,6 +56,18 @@ public class CustomResponseEntityExceptionHandler extends ResponseEntityExceptio
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
     }
 
+    @ExceptionHandler(InvalidTokenException.class)
+    public ResponseEntity<ExceptionResponse> handleInvalidToken(
+            InvalidTokenException ex, WebRequest request) {
+        
+        ExceptionResponse response = ExceptionResponse.of(
+                ex.getMessage(), 
+                request, 
+                HttpStatus.UNAUTHORIZED
+        );
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+    }
+
     @ExceptionHandler(StoreAlreadyExistsException.class)
     public ResponseEntity<ExceptionResponse> handleStoreAlreadyExists(
             StoreAlreadyExistsException ex, WebRequest request) {
@@ -104,6 +116,36 @@ public class CustomResponseEntityExceptionHandler extends ResponseEntityExceptio
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
     }
 
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<ExceptionResponse> handleServiceBusy(
+            ServiceBusyException ex, WebRequest request) {
+        
+        ExceptionResponse response = ExceptionResponse.of(
+                ex.getMessage(), 
+                request, 
+                HttpStatus.SERVICE_UNAVAILABLE
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+                .body(response);
+    }
+
+    @ExceptionHandler(RateLimitedException.class)
+    public ResponseEntity<ExceptionResponse> handleRateLimited(
+            RateLimitedException ex, WebRequest request) {
+
+        ExceptionResponse response = ExceptionResponse.of(
+                ex.getMessage(),
+                request,
+                HttpStatus.TOO_MANY_REQUESTS
+        );
+        // Arredonda para cima, como o RateLimitFilter: o cliente nunca volta antes do próximo token
+        long seconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(seconds))
+                .body(response);
+    }
+
     @ExceptionHandler(UsernameNotFoundException.class)
     public ResponseEntity<ExceptionResponse> handleUsernameNotFound(
             UsernameNotFoundException ex, WebRequest request) {
@@ -0,0 +1,29 @@
+package com.umdev.infoeste.utils.http;
+
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Request URI helpers for HTTP caching: ETags depend on the path and the parameters, so every
+ * combination of filters gets its own.
+ */
+public final class RequestUris {
+
+    private RequestUris() {
+    }
+
+    // Parâmetros em ordem alfabética: "?limit=2&page=1" e "?page=1&limit=2" geram o mesmo ETag
+    public static String withParameters(ServletWebRequest webRequest) {
+        StringBuilder resource = new StringBuilder(webRequest.getRequest().getRequestURI());
+        char separator = '?';
+        for (Map.Entry<String, String[]> parameter : new TreeMap<>(webRequest.getParameterMap()).entrySet()) {
+            for (String value : parameter.getValue()) {
+                resource.append(separator).append(parameter.getKey()).append('=').append(value);
+                separator = '&';
+            }
+        }
+        return resource.toString();
+    }
+}
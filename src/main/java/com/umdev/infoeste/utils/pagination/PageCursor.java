@@ -0,0 +1,72 @@
+package com.umdev.infoeste.utils.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position of the last row returned by a keyset-paginated listing: the sort it was produced with,
+ * the value of the sort key and the id used as tiebreaker. Clients receive it as an opaque token
+ * in {@code meta.nextCursor} and send it back unchanged to fetch the next page.
+ */
+public record PageCursor(
+        String sort,
+        String value,
+        UUID id
+) {
+    public static final String NEWEST = "newest";
+    // Ordem padrão da busca textual: o valor é a pontuação do último resultado
+    public static final String RELEVANCE = "relevance";
+    // Busca de lojas por trigramas: o valor é a similaridade do último resultado
+    public static final String SIMILARITY = "similarity";
+
+    private static final String SEPARATOR = "|";
+
+    public PageCursor(LocalDateTime createdAt, UUID id) {
+        this(NEWEST, createdAt.toString(), id);
+    }
+
+    public LocalDateTime createdAt() {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public double score() {
+        try {
+            return Double.parseDouble(value);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        String raw = sort + SEPARATOR + value + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Cursor vazio significa "primeira página" no modo cursor
+    public static PageCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int idSeparator = raw.lastIndexOf(SEPARATOR);
+            UUID id = UUID.fromString(raw.substring(idSeparator + 1));
+            String key = raw.substring(0, idSeparator);
+
+            // Cursores antigos tinham só "createdAt|id", sem a ordenação
+            int sortSeparator = key.indexOf(SEPARATOR);
+            if (sortSeparator < 0) {
+                return new PageCursor(NEWEST, key, id);
+            }
+            return new PageCursor(key.substring(0, sortSeparator), key.substring(sortSeparator + 1), id);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
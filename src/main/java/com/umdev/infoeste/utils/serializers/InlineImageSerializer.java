@@ -0,0 +1,42 @@
+package com.umdev.infoeste.utils.serializers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.umdev.infoeste.dto.InlineImageDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Writes an {@link InlineImageDto} as a {@code data:} URI, encoding the image to Base64 in
+ * fixed-size chunks straight into the JSON output instead of building the whole string in memory.
+ */
+public class InlineImageSerializer extends StdSerializer<InlineImageDto> {
+
+    // Múltiplo de 3 para que cada bloco gere Base64 sem padding no meio da string
+    private static final int CHUNK_SIZE = 3 * 4096;
+
+    public InlineImageSerializer() {
+        super(InlineImageDto.class);
+    }
+
+    @Override
+    public void serialize(InlineImageDto image, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        Base64.Encoder encoder = Base64.getEncoder();
+        byte[] buffer = new byte[CHUNK_SIZE];
+
+        gen.writeRawValue("\"data:" + image.contentType() + ";base64,");
+        try (InputStream in = image.resource().getInputStream()) {
+            int read;
+            while ((read = in.readNBytes(buffer, 0, CHUNK_SIZE)) > 0) {
+                byte[] chunk = read == CHUNK_SIZE ? buffer : Arrays.copyOf(buffer, read);
+                gen.writeRaw(new String(encoder.encode(chunk), StandardCharsets.US_ASCII));
+            }
+        }
+        gen.writeRaw('"');
+    }
+}
@@ -0,0 +1,27 @@
+package com.umdev.infoeste.utils.text;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Folds text into the form used for search keys: lowercase, without diacritics and with
+ * collapsed whitespace, so "Pão de Açúcar" and "pao de acucar" compare equal.
+ */
+public final class TextNormalizer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private TextNormalizer() {
+    }
+
+    public static String fold(String text) {
+        if (text == null) {
+            return null;
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        String withoutDiacritics = DIACRITICS.matcher(decomposed).replaceAll("");
+        return WHITESPACE.matcher(withoutDiacritics).replaceAll(" ").strip().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,86 @@
+package com.umdev.infoeste.mappers;
+
+import com.umdev.infoeste.entities.Product;
+import com.umdev.infoeste.repositories.projections.ProductSummary;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductImageMapperTest {
+
+    private static final UUID PRODUCT_ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final String KEY = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    private final ProductImageMapper mapper = new ProductImageMapper();
+
+    @BeforeEach
+    void setUp() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private static Product product(String imageKey) {
+        Product product = new Product();
+        product.setId(PRODUCT_ID);
+        product.setImageKey(imageKey);
+        return product;
+    }
+
+    @Test
+    void versionIsAPrefixOfTheContentKey() {
+        assertEquals("/v1/products/" + PRODUCT_ID + "/image?v=0123456789ab", mapper.toImagePath(product(KEY)));
+        assertEquals(ProductImageMapper.VERSION_LENGTH, "0123456789ab".length());
+    }
+
+    @Test
+    void newContentGetsANewUrl() {
+        String other = "fedcba9876543210" + KEY.substring(16);
+
+        assertEquals("http://localhost/v1/products/" + PRODUCT_ID + "/image?v=fedcba987654",
+                mapper.toImageUrl(product(other)));
+    }
+
+    @Test
+    void thumbnailsRequestTheMediumRendition() {
+        ProductSummary summary = mock(ProductSummary.class);
+        when(summary.getId()).thenReturn(PRODUCT_ID);
+        when(summary.getImageKey()).thenReturn(KEY);
+
+        assertEquals("http://localhost/v1/products/" + PRODUCT_ID + "/image?size=480&v=0123456789ab",
+                mapper.toThumbnailUrl(summary));
+    }
+
+    @Test
+    void cachedPathIsResolvedAgainstEachRequestHost() {
+        String path = mapper.toImagePath(product(KEY));
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setScheme("https");
+        request.setServerName("loja.example.com");
+        request.setServerPort(443);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        assertEquals("https://loja.example.com" + path, mapper.toAbsoluteUrl(path));
+        assertEquals(path, mapper.toImagePath(product(KEY)));
+    }
+
+    @Test
+    void productsWithoutImageHaveNoUrl() {
+        assertNull(mapper.toImagePath(product(null)));
+        assertNull(mapper.toImageUrl(product(null)));
+        assertNull(mapper.toAbsoluteUrl(null));
+    }
+}
@@ -0,0 +1,113 @@
+package com.umdev.infoeste.mappers;
+
+import com.umdev.infoeste.dto.ProductDetailDto;
+import com.umdev.infoeste.dto.ProductMyListDto;
+import com.umdev.infoeste.dto.ProductPublicDto;
+import com.umdev.infoeste.entities.Category;
+import com.umdev.infoeste.entities.Product;
+import com.umdev.infoeste.entities.Store;
+import com.umdev.infoeste.repositories.CategoryRepository;
+import com.umdev.infoeste.repositories.projections.ProductSummary;
+import com.umdev.infoeste.services.CategoryDictionary;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductMapperTest {
+
+    private static final UUID PRODUCT_ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final String KEY = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef";
+    private static final int BEBIDAS = 1;
+
+    private ProductMapper mapper;
+
+    @BeforeEach
+    void setUp() throws ReflectiveOperationException {
+        CategoryRepository categoryRepository = mock(CategoryRepository.class);
+        when(categoryRepository.findAll()).thenReturn(List.of(new Category(BEBIDAS, "Bebidas", "bebidas")));
+        CategoryDictionary categoryDictionary = new CategoryDictionary(categoryRepository, Duration.ofMinutes(1));
+        categoryDictionary.load();
+
+        // O MapStruct injeta os mappers auxiliares por campo
+        ProductMapperImpl impl = new ProductMapperImpl();
+        inject(impl, "productImageMapper", new ProductImageMapper());
+        inject(impl, "categoryNameMapper", new CategoryNameMapper(categoryDictionary));
+        mapper = impl;
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private static void inject(Object target, String name, Object value) throws ReflectiveOperationException {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    private static ProductSummary summary() {
+        ProductSummary summary = mock(ProductSummary.class);
+        when(summary.getId()).thenReturn(PRODUCT_ID);
+        when(summary.getName()).thenReturn("Café torrado");
+        when(summary.getPrice()).thenReturn(new BigDecimal("12.90"));
+        when(summary.getStock()).thenReturn(7);
+        when(summary.getCategoryId()).thenReturn(BEBIDAS);
+        when(summary.getStoreName()).thenReturn("Mercado Central");
+        when(summary.getImageKey()).thenReturn(KEY);
+        return summary;
+    }
+
+    @Test
+    void publicListingIsBuiltFromTheProjectionAlone() {
+        ProductPublicDto dto = mapper.toPublicDto(summary());
+
+        assertEquals(new ProductPublicDto(PRODUCT_ID, "Café torrado", new BigDecimal("12.90"), 7, "Bebidas",
+                "Mercado Central", "http://localhost/v1/products/" + PRODUCT_ID + "/image?size=480&v=0123456789ab"),
+                dto);
+    }
+
+    @Test
+    void ownListingIsBuiltFromTheProjectionAlone() {
+        ProductMyListDto dto = mapper.toMyListDto(summary());
+
+        assertEquals(new ProductMyListDto(PRODUCT_ID, "Café torrado", new BigDecimal("12.90"), 7,
+                "http://localhost/v1/products/" + PRODUCT_ID + "/image?size=480&v=0123456789ab"), dto);
+    }
+
+    @Test
+    void detailKeepsTextFieldsAsIsAndTheImageUrlRelative() {
+        Store store = new Store();
+        store.setId(UUID.randomUUID());
+        store.setName("Mercado Central");
+        Product product = new Product();
+        product.setId(PRODUCT_ID);
+        product.setName("Café torrado");
+        product.setDescription("Pacote de 500g");
+        product.setCategory(new Category(BEBIDAS, "Bebidas", "bebidas"));
+        product.setImageKey(KEY);
+        product.setStore(store);
+
+        ProductDetailDto dto = mapper.toDetailDto(product);
+
+        assertEquals("Café torrado", dto.name());
+        assertEquals("Pacote de 500g", dto.description());
+        assertEquals("Mercado Central", dto.store().name());
+        assertEquals("/v1/products/" + PRODUCT_ID + "/image?v=0123456789ab", dto.imageUrl());
+    }
+}
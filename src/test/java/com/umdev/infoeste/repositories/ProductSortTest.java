@@ -0,0 +1,41 @@
+package com.umdev.infoeste.repositories;
+
+import com.umdev.infoeste.repositories.projections.ProductSortKey;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProductSortTest {
+
+    private static ProductSortKey named(String name) {
+        return ProductSort.NAME.cursorKey(name, UUID.randomUUID());
+    }
+
+    @Test
+    void nameOrderIgnoresCaseAndAccents() {
+        List<ProductSortKey> products = new ArrayList<>(List.of(named("Zebra"), named("banana"), named("Água"),
+                named("abacaxi")));
+
+        products.sort(ProductSort.NAME.comparator());
+
+        assertEquals(List.of("abacaxi", "Água", "banana", "Zebra"),
+                products.stream().map(ProductSortKey::getName).toList());
+    }
+
+    @Test
+    void cursorKeyIsFoundWithTheSameOrder() {
+        List<ProductSortKey> products = new ArrayList<>(List.of(named("Café"), named("cafeteira"), named("Açúcar")));
+        products.sort(ProductSort.NAME.comparator());
+        ProductSortKey anchor = products.get(1);
+
+        int position = Collections.binarySearch(products,
+                ProductSort.NAME.cursorKey(anchor.getName(), anchor.getId()), ProductSort.NAME.comparator());
+
+        assertEquals(1, position);
+    }
+}
@@ -0,0 +1,55 @@
+package com.umdev.infoeste.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveBCryptPasswordEncoderTest {
+
+    // Custo baixo para o teste rodar rápido; só o prefixo "$2a$NN$" importa para upgradeEncoding
+    private final AdaptiveBCryptPasswordEncoder encoder = new AdaptiveBCryptPasswordEncoder(6);
+
+    private static String hashWithCost(int cost) {
+        return BCrypt.hashpw("senha", BCrypt.gensalt(cost));
+    }
+
+    @Test
+    void hashesWithItsOwnCostAndVerifiesOtherCosts() {
+        String encoded = encoder.encode("senha");
+
+        assertTrue(encoded.startsWith("$2a$06$"));
+        assertTrue(encoder.matches("senha", encoded));
+        assertTrue(encoder.matches("senha", hashWithCost(5)));
+        assertFalse(encoder.matches("outra", encoded));
+    }
+
+    @Test
+    void upgradesHashesBelowTheCurrentCost() {
+        assertTrue(encoder.upgradeEncoding(hashWithCost(4)));
+        assertTrue(encoder.upgradeEncoding(hashWithCost(5)));
+    }
+
+    @Test
+    void toleratesOneStepAboveTheCurrentCost() {
+        assertFalse(encoder.upgradeEncoding(hashWithCost(6)));
+        assertFalse(encoder.upgradeEncoding(hashWithCost(7)));
+        assertTrue(encoder.upgradeEncoding(hashWithCost(8)));
+    }
+
+    @Test
+    void ignoresHashesItCannotRead() {
+        assertFalse(encoder.upgradeEncoding(null));
+        assertFalse(encoder.upgradeEncoding("{noop}senha"));
+    }
+
+    @Test
+    void calibrationStaysWithinBounds() {
+        int cost = AdaptiveBCryptPasswordEncoder.calibrate(Duration.ofMillis(1), 4, 6);
+
+        assertTrue(cost >= 4 && cost <= 6);
+    }
+}
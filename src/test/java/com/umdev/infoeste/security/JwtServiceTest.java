@@ -0,0 +1,95 @@
+package com.umdev.infoeste.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.umdev.infoeste.config.CacheConfig;
+import com.umdev.infoeste.entities.UserRole;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    private final JwtService jwtService = new JwtService(60_000, SECRET, Caffeine.newBuilder().build());
+
+    private static HttpServletRequest bearer(String token) {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn(token == null ? null : "Bearer " + token);
+        return request;
+    }
+
+    @Test
+    void tokenCarriesTheStoreIdAndRole() {
+        AuthenticatedStore store = new AuthenticatedStore(UUID.randomUUID(), "loja@example.com", UserRole.ADMIN);
+
+        assertEquals(store, jwtService.getAuthUser(bearer(jwtService.getToken(store))));
+    }
+
+    @Test
+    void requestsWithoutTokenAreAnonymous() {
+        assertNull(jwtService.getAuthUser(bearer(null)));
+    }
+
+    @Test
+    void rejectsTokensWithoutStoreClaims() {
+        // Formato antigo: só o e-mail no subject
+        String legacy = Jwts.builder()
+                .subject("loja@example.com")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        assertThrows(JwtException.class, () -> jwtService.getAuthUser(bearer(legacy)));
+    }
+
+    @Test
+    void rejectsTokensSignedWithAnotherKey() {
+        JwtService other = new JwtService(60_000, "fedcba9876543210fedcba9876543210", Caffeine.newBuilder().build());
+        String token = other.getToken(new AuthenticatedStore(UUID.randomUUID(), "loja@example.com", UserRole.USER));
+
+        assertThrows(JwtException.class, () -> jwtService.getAuthUser(bearer(token)));
+    }
+
+    @Test
+    void verifiesEachTokenOnceUntilItExpires() {
+        Cache<String, JwtService.VerifiedToken> cache = new CacheConfig(Duration.ofMinutes(1)).verifiedTokenCache(100);
+        JwtService cached = new JwtService(60_000, SECRET, cache);
+        String token = cached.getToken(new AuthenticatedStore(UUID.randomUUID(), "loja@example.com", UserRole.USER));
+
+        cached.getAuthUser(bearer(token));
+        cached.getAuthUser(bearer(token));
+
+        assertEquals(1, cache.stats().missCount());
+        assertEquals(1, cache.stats().hitCount());
+        Duration expiresAfter = cache.policy().expireVariably().orElseThrow()
+                .getExpiresAfter(TokenHashes.sha256(token)).orElseThrow();
+        assertTrue(expiresAfter.compareTo(Duration.ofMinutes(1)) <= 0);
+    }
+
+    @Test
+    void invalidTokensAreNotCached() {
+        Cache<String, JwtService.VerifiedToken> cache = new CacheConfig(Duration.ofMinutes(1)).verifiedTokenCache(100);
+        JwtService cached = new JwtService(60_000, SECRET, cache);
+
+        assertThrows(JwtException.class, () -> cached.getAuthUser(bearer("not-a-token")));
+
+        assertEquals(0, cache.estimatedSize());
+    }
+}
@@ -0,0 +1,72 @@
+package com.umdev.infoeste.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimitRuleTest {
+
+    private static final int CAPACITY = 5;
+    private static final Duration PERIOD = Duration.ofMinutes(1);
+    private static final Duration INTERVAL = PERIOD.dividedBy(CAPACITY);
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+    private RateLimitRule rule;
+
+    @BeforeEach
+    void setUp() {
+        rule = new RateLimitRule("test", request -> true, RateLimitRule.KeyType.IP, CAPACITY, PERIOD, 100, now::get);
+    }
+
+    @Test
+    void allowsABurstOfExactlyCapacity() {
+        for (int i = 0; i < CAPACITY; i++) {
+            assertEquals(Duration.ZERO, rule.tryAcquire("ip:1"), "request " + (i + 1));
+        }
+        assertTrue(!rule.tryAcquire("ip:1").isZero(), "request past the capacity must be rejected");
+    }
+
+    @Test
+    void retryAfterIsTheTimeUntilTheNextToken() {
+        exhaust("ip:1");
+
+        assertEquals(INTERVAL, rule.tryAcquire("ip:1"));
+
+        now.addAndGet(INTERVAL.dividedBy(2).toNanos());
+        assertEquals(INTERVAL.dividedBy(2), rule.tryAcquire("ip:1"));
+    }
+
+    @Test
+    void refillsOneTokenPerInterval() {
+        exhaust("ip:1");
+
+        now.addAndGet(INTERVAL.toNanos());
+        assertEquals(Duration.ZERO, rule.tryAcquire("ip:1"));
+        assertTrue(!rule.tryAcquire("ip:1").isZero());
+
+        // Um período inteiro parado devolve a capacidade cheia, mas não mais que ela
+        now.addAndGet(PERIOD.multipliedBy(3).toNanos());
+        for (int i = 0; i < CAPACITY; i++) {
+            assertEquals(Duration.ZERO, rule.tryAcquire("ip:1"));
+        }
+        assertTrue(!rule.tryAcquire("ip:1").isZero());
+    }
+
+    @Test
+    void keepsOneBucketPerKey() {
+        exhaust("ip:1");
+
+        assertEquals(Duration.ZERO, rule.tryAcquire("ip:2"));
+    }
+
+    private void exhaust(String key) {
+        for (int i = 0; i < CAPACITY; i++) {
+            rule.tryAcquire(key);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.umdev.infoeste.services;
+
+import com.umdev.infoeste.entities.Category;
+import com.umdev.infoeste.repositories.CategoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CategoryDictionaryTest {
+
+    private CategoryRepository categoryRepository;
+    private CategoryDictionary dictionary;
+    private final AtomicInteger lookups = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        categoryRepository = mock(CategoryRepository.class);
+        when(categoryRepository.findAll()).thenReturn(List.of(new Category(1, "Bebidas", "bebidas")));
+        dictionary = new CategoryDictionary(categoryRepository, Duration.ofMinutes(1));
+        dictionary.load();
+    }
+
+    private void stubLookup(String key, Category category) {
+        when(categoryRepository.findByNameKey(key)).thenAnswer(invocation -> {
+            lookups.incrementAndGet();
+            return Optional.ofNullable(category);
+        });
+    }
+
+    @Test
+    void resolvesKnownNamesIgnoringCaseAndAccents() {
+        assertEquals(Optional.of(1), dictionary.findId("BEBÍDAS"));
+        assertEquals("Bebidas", dictionary.nameOf(1));
+    }
+
+    @Test
+    void looksUpCategoriesMissingFromTheSnapshotOnce() {
+        stubLookup("limpeza", new Category(2, "Limpeza", "limpeza"));
+
+        assertEquals(Optional.of(2), dictionary.findId("Limpeza"));
+        assertEquals(Optional.of(2), dictionary.findId("limpeza"));
+        assertEquals(1, lookups.get());
+    }
+
+    @Test
+    void remembersUnknownNames() {
+        stubLookup("inexistente", null);
+
+        assertEquals(Optional.empty(), dictionary.findId("inexistente"));
+        assertEquals(Optional.empty(), dictionary.findId("Inexistente"));
+        assertEquals(1, lookups.get());
+    }
+
+    @Test
+    void creatingACategoryForgetsThatItWasUnknown() {
+        stubLookup("papelaria", null);
+        assertEquals(Optional.empty(), dictionary.findId("papelaria"));
+
+        when(categoryRepository.save(new Category(null, "Papelaria", "papelaria")))
+                .thenReturn(new Category(3, "Papelaria", "papelaria"));
+        when(categoryRepository.getReferenceById(3)).thenReturn(new Category(3, "Papelaria", "papelaria"));
+        dictionary.resolve("Papelaria");
+
+        assertEquals(Optional.of(3), dictionary.findId("papelaria"));
+    }
+}
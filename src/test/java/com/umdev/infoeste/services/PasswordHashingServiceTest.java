@@ -0,0 +1,97 @@
+package com.umdev.infoeste.services;
+
+import com.umdev.infoeste.config.PasswordHashingConfig;
+import com.umdev.infoeste.utils.exceptions.ServiceBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PasswordHashingServiceTest {
+
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(2);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ThreadPoolTaskExecutor executor;
+    private AuthenticationManager authenticationManager;
+    private PasswordHashingService service;
+
+    @BeforeEach
+    void setUp() {
+        // Uma thread e uma vaga na fila: a terceira chamada simultânea é recusada
+        executor = new PasswordHashingConfig().passwordHashingExecutor(1, 1);
+        executor.initialize();
+
+        PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+        when(passwordEncoder.encode(any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "hash:" + invocation.getArgument(0);
+        });
+        authenticationManager = mock(AuthenticationManager.class);
+
+        service = new PasswordHashingService(executor, passwordEncoder, authenticationManager, meterRegistry,
+                RETRY_AFTER);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void hashesOnTheDedicatedPool() {
+        release.countDown();
+
+        assertEquals("hash:secret", service.encode("secret"));
+        assertEquals(1, meterRegistry.get("password.hashing.duration").tag("operation", "encode").timer().count());
+    }
+
+    @Test
+    void rejectsRightAwayWhenTheQueueIsFull() throws Exception {
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> service.encode("first"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> service.encode("second"));
+        while (executor.getQueueSize() == 0) {
+            Thread.onSpinWait();
+        }
+
+        ServiceBusyException error = assertThrows(ServiceBusyException.class, () -> service.encode("third"));
+        assertEquals(RETRY_AFTER, error.getRetryAfter());
+        assertEquals(1.0, meterRegistry.get("password.hashing.rejected").counter().count());
+
+        release.countDown();
+        assertEquals("hash:first", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hash:second", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void authenticationFailuresReachTheCallerUnwrapped() {
+        BadCredentialsException failure = new BadCredentialsException("Bad credentials");
+        when(authenticationManager.authenticate(any())).thenThrow(failure);
+
+        BadCredentialsException error = assertThrows(BadCredentialsException.class,
+                () -> service.authenticate(new UsernamePasswordAuthenticationToken("loja@example.com", "wrong")));
+        assertEquals(failure, error);
+    }
+}
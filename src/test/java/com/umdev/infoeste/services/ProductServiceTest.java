@@ -0,0 +1,178 @@
+package com.umdev.infoeste.services;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.umdev.infoeste.dto.FacetsDto;
+import com.umdev.infoeste.dto.FacetsDto.CategoryCount;
+import com.umdev.infoeste.entities.Category;
+import com.umdev.infoeste.events.ProductChangedEvent;
+import com.umdev.infoeste.mappers.ProductMapper;
+import com.umdev.infoeste.repositories.CategoryRepository;
+import com.umdev.infoeste.repositories.ProductRepository;
+import com.umdev.infoeste.repositories.projections.CategoryCountRow;
+import com.umdev.infoeste.repositories.projections.PriceBucketRow;
+import com.umdev.infoeste.repositories.projections.ProductSearchView;
+import com.umdev.infoeste.services.cache.ListingResultCache;
+import com.umdev.infoeste.services.cache.ProductCountCache;
+import com.umdev.infoeste.services.search.ProductSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductServiceTest {
+
+    private record CategoryCountView(Integer categoryId, long productCount) implements CategoryCountRow {
+        @Override
+        public Integer getCategoryId() {
+            return categoryId;
+        }
+
+        @Override
+        public long getProductCount() {
+            return productCount;
+        }
+    }
+
+    private record SearchView(UUID id, String name, Integer categoryId, BigDecimal price) implements ProductSearchView {
+        @Override
+        public UUID getId() {
+            return id;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getDescription() {
+            return null;
+        }
+
+        @Override
+        public String getCategory() {
+            return null;
+        }
+
+        @Override
+        public UUID getStoreId() {
+            return STORE;
+        }
+
+        @Override
+        public Integer getCategoryId() {
+            return categoryId;
+        }
+
+        @Override
+        public BigDecimal getPrice() {
+            return price;
+        }
+
+        @Override
+        public LocalDateTime getCreatedAt() {
+            return LocalDateTime.of(2025, 1, 1, 0, 0);
+        }
+    }
+
+    private static final UUID STORE = UUID.randomUUID();
+    private static final int BEBIDAS = 1;
+    private static final int LIMPEZA = 2;
+    private static final int SEM_NOME = 9;
+    private static final BigDecimal BUCKET_SIZE = BigDecimal.TEN;
+
+    private ProductRepository productRepository;
+    private ProductSearchIndex productSearchIndex;
+    private ProductService productService;
+
+    @BeforeEach
+    void setUp() {
+        CategoryRepository categoryRepository = mock(CategoryRepository.class);
+        when(categoryRepository.findAll()).thenReturn(List.of(
+                new Category(BEBIDAS, "Bebidas", "bebidas"),
+                new Category(LIMPEZA, "Limpeza", "limpeza")));
+        CategoryDictionary categoryDictionary = new CategoryDictionary(categoryRepository, Duration.ofMinutes(1));
+        categoryDictionary.load();
+
+        productRepository = mock(ProductRepository.class);
+        productSearchIndex = new ProductSearchIndex(productRepository);
+        // Só as dependências da listagem e das facetas: o resto não é usado por getProducts
+        productService = new ProductService(productRepository, null, mock(ProductMapper.class), null, null, null,
+                new ProductCountCache(Duration.ofMinutes(1), 100),
+                new ListingResultCache(Caffeine.newBuilder().build(), categoryDictionary),
+                productSearchIndex, null, categoryDictionary, null, null, null, BUCKET_SIZE);
+    }
+
+    private FacetsDto facets(String query, String category) {
+        return productService.getProducts(1, 20, null, false, true, null, query, category, null, null).facets();
+    }
+
+    // Faixas como "min-max:count", comparando os limites pelo valor e não pela escala do BigDecimal
+    private static List<String> histogram(FacetsDto facets) {
+        return facets.priceHistogram().stream()
+                .map(bucket -> bucket.min().stripTrailingZeros().toPlainString() + "-"
+                        + bucket.max().stripTrailingZeros().toPlainString() + ":" + bucket.count())
+                .toList();
+    }
+
+    private void index(String name, Integer categoryId, String price) {
+        UUID id = UUID.randomUUID();
+        when(productRepository.findSearchViewById(id)).thenReturn(Optional.of(
+                new SearchView(id, name, categoryId, new BigDecimal(price))));
+        productSearchIndex.onProductChanged(new ProductChangedEvent(id, STORE, Set.of()));
+    }
+
+    @Test
+    void listingFacetsComeFromTheAggregatedRows() {
+        when(productRepository.findCategoryCounts(any(), any(), any())).thenReturn(List.of(
+                new CategoryCountView(BEBIDAS, 3), new CategoryCountView(LIMPEZA, 5),
+                new CategoryCountView(SEM_NOME, 3), new CategoryCountView(null, 2)));
+        when(productRepository.findPriceBuckets(any(), any(), any(), any(), any())).thenReturn(List.of(
+                new PriceBucketRow(new BigDecimal("0"), 4), new PriceBucketRow(new BigDecimal("20"), 1)));
+
+        FacetsDto facets = facets(null, null);
+
+        // Produtos sem categoria ficam de fora; categoria sem nome vai para o fim entre as de mesma contagem
+        assertEquals(List.of(new CategoryCount("Limpeza", 5), new CategoryCount("Bebidas", 3),
+                new CategoryCount(null, 3)), facets.categories());
+        assertEquals(List.of("0-10:4", "20-30:1"), histogram(facets));
+    }
+
+    @Test
+    void histogramFollowsTheSelectedCategoryButCountsDoNot() {
+        when(productRepository.findCategoryCounts(null, null, null)).thenReturn(List.of(
+                new CategoryCountView(BEBIDAS, 3), new CategoryCountView(LIMPEZA, 5)));
+        when(productRepository.findPriceBuckets(null, BEBIDAS, null, null, BUCKET_SIZE)).thenReturn(List.of(
+                new PriceBucketRow(new BigDecimal("10"), 3)));
+
+        FacetsDto facets = facets(null, "bebidas");
+
+        assertEquals(2, facets.categories().size());
+        assertEquals(List.of("10-20:3"), histogram(facets));
+    }
+
+    @Test
+    void searchFacetsAreAggregatedFromTheMatchingProducts() {
+        index("Café torrado", BEBIDAS, "12.90");
+        index("Café solúvel", BEBIDAS, "19.99");
+        index("Café em cápsulas", BEBIDAS, "34.50");
+        index("Sabão de café", LIMPEZA, "5.00");
+        index("Detergente", LIMPEZA, "3.00");
+
+        FacetsDto facets = facets("cafe", "bebidas");
+
+        assertEquals(List.of(new CategoryCount("Bebidas", 3), new CategoryCount("Limpeza", 1)), facets.categories());
+        assertEquals(List.of("10-20:2", "30-40:1"), histogram(facets));
+    }
+}
@@ -0,0 +1,127 @@
+package com.umdev.infoeste.services;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.umdev.infoeste.entities.RefreshToken;
+import com.umdev.infoeste.entities.Store;
+import com.umdev.infoeste.entities.UserRole;
+import com.umdev.infoeste.repositories.RefreshTokenRepository;
+import com.umdev.infoeste.repositories.StoreRepository;
+import com.umdev.infoeste.utils.exceptions.InvalidTokenException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RefreshTokenServiceTest {
+
+    // Tabela refresh_tokens em memória, indexada pelo hash como a consulta real
+    private final Map<String, RefreshToken> tokens = new ConcurrentHashMap<>();
+    private RefreshTokenRepository refreshTokenRepository;
+    private StoreRepository storeRepository;
+    private Store store;
+
+    @BeforeEach
+    void setUp() {
+        store = new Store();
+        store.setId(UUID.randomUUID());
+        store.setEmail("loja@example.com");
+        store.setRole(UserRole.USER);
+
+        refreshTokenRepository = mock(RefreshTokenRepository.class);
+        storeRepository = mock(StoreRepository.class);
+        when(storeRepository.getReferenceById(store.getId())).thenReturn(store);
+
+        when(refreshTokenRepository.save(any())).thenAnswer(invocation -> {
+            RefreshToken token = invocation.getArgument(0);
+            token.setId(UUID.randomUUID());
+            tokens.put(token.getTokenHash(), token);
+            return token;
+        });
+        when(refreshTokenRepository.findWithStoreByTokenHash(any())).thenAnswer(invocation ->
+                Optional.ofNullable(tokens.get(invocation.<String>getArgument(0))));
+        when(refreshTokenRepository.markUsed(any())).thenAnswer(invocation -> {
+            UUID id = invocation.getArgument(0);
+            for (RefreshToken token : tokens.values()) {
+                if (token.getId().equals(id) && !token.isUsed()) {
+                    token.setUsed(true);
+                    return 1;
+                }
+            }
+            return 0;
+        });
+        when(refreshTokenRepository.deleteByFamilyId(any())).thenAnswer(invocation -> {
+            UUID familyId = invocation.getArgument(0);
+            int before = tokens.size();
+            tokens.values().removeIf(token -> familyId.equals(token.getFamilyId()));
+            return before - tokens.size();
+        });
+    }
+
+    private RefreshTokenService service(Duration expiration) {
+        return new RefreshTokenService(refreshTokenRepository, storeRepository,
+                Caffeine.newBuilder().build(), expiration);
+    }
+
+    @Test
+    void rotationReplacesTheTokenAndKeepsTheStore() {
+        RefreshTokenService service = service(Duration.ofDays(30));
+        String issued = service.issue(store);
+
+        RefreshTokenService.Rotation rotation = service.rotate(issued);
+
+        assertNotEquals(issued, rotation.refreshToken());
+        assertEquals(store.getId(), rotation.store().storeId());
+        assertEquals(store.getEmail(), rotation.store().email());
+        assertEquals(store.getId(), service.rotate(rotation.refreshToken()).store().storeId());
+    }
+
+    @Test
+    void tokenIsSingleUse() {
+        RefreshTokenService service = service(Duration.ofDays(30));
+        String issued = service.issue(store);
+        service.rotate(issued);
+
+        assertThrows(InvalidTokenException.class, () -> service.rotate(issued));
+    }
+
+    @Test
+    void replayRevokesTheWholeFamilyOnly() {
+        RefreshTokenService service = service(Duration.ofDays(30));
+        String stolen = service.issue(store);
+        String current = service.rotate(stolen).refreshToken();
+        String otherLogin = service.issue(store);
+
+        assertThrows(InvalidTokenException.class, () -> service.rotate(stolen));
+
+        // O token renovado a partir do roubado cai junto; a sessão de outro login continua valendo
+        assertThrows(InvalidTokenException.class, () -> service.rotate(current));
+        assertEquals(store.getId(), service.rotate(otherLogin).store().storeId());
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        RefreshTokenService service = service(Duration.ofSeconds(-1));
+        String issued = service.issue(store);
+
+        InvalidTokenException exception = assertThrows(InvalidTokenException.class, () -> service.rotate(issued));
+        assertEquals("Refresh token expired. Please login again.", exception.getMessage());
+    }
+
+    @Test
+    void unknownTokenIsRejected() {
+        RefreshTokenService service = service(Duration.ofDays(30));
+
+        assertThrows(InvalidTokenException.class, () -> service.rotate("never-issued"));
+    }
+}
@@ -0,0 +1,71 @@
+package com.umdev.infoeste.services.cache;
+
+import com.umdev.infoeste.events.ProductChangedEvent;
+import com.umdev.infoeste.events.StoreChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CatalogVersionTest {
+
+    private static final UUID STORE = UUID.randomUUID();
+    private static final UUID OTHER_STORE = UUID.randomUUID();
+
+    private final CatalogVersion version = new CatalogVersion(Duration.ofHours(1));
+
+    private void productChanged(UUID storeId) {
+        version.onProductChanged(new ProductChangedEvent(UUID.randomUUID(), storeId, Set.of(1)));
+    }
+
+    @Test
+    void eTagIsStableWithoutChangesAndDiffersPerResource() {
+        assertEquals(version.productsETag("/v1/products?page=1"), version.productsETag("/v1/products?page=1"));
+        assertNotEquals(version.productsETag("/v1/products?page=1"), version.productsETag("/v1/products?page=2"));
+    }
+
+    @Test
+    void productChangeMovesProductETagsOfItsStoreOnly() {
+        String products = version.productsETag("/v1/products");
+        String ofStore = version.productsOfStoreETag(STORE, "/v1/stores/products");
+        String ofOtherStore = version.productsOfStoreETag(OTHER_STORE, "/v1/stores/products");
+        String stores = version.storesETag("/v1/stores");
+
+        productChanged(STORE);
+
+        assertNotEquals(products, version.productsETag("/v1/products"));
+        assertNotEquals(ofStore, version.productsOfStoreETag(STORE, "/v1/stores/products"));
+        assertEquals(ofOtherStore, version.productsOfStoreETag(OTHER_STORE, "/v1/stores/products"));
+        assertEquals(stores, version.storesETag("/v1/stores"));
+    }
+
+    @Test
+    void storeChangeAlsoMovesProductETags() {
+        // Listagens de produto exibem o nome da loja
+        String products = version.productsETag("/v1/products");
+        String stores = version.storesETag("/v1/stores");
+
+        version.onStoreChanged(new StoreChangedEvent(STORE));
+
+        assertNotEquals(products, version.productsETag("/v1/products"));
+        assertNotEquals(stores, version.storesETag("/v1/stores"));
+    }
+
+    @Test
+    void eTagsOfAnotherStartupNeverMatch() throws InterruptedException {
+        String before = version.productsETag("/v1/products");
+        Thread.sleep(2);
+
+        assertNotEquals(before, new CatalogVersion(Duration.ofHours(1)).productsETag("/v1/products"));
+    }
+
+    @Test
+    void rejectsANonPositiveMaxAge() {
+        assertThrows(IllegalArgumentException.class, () -> new CatalogVersion(Duration.ZERO));
+    }
+}
@@ -0,0 +1,105 @@
+package com.umdev.infoeste.services.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.umdev.infoeste.dto.PaginatedResponseDto;
+import com.umdev.infoeste.dto.ProductPublicDto;
+import com.umdev.infoeste.entities.Category;
+import com.umdev.infoeste.events.ProductChangedEvent;
+import com.umdev.infoeste.repositories.CategoryRepository;
+import com.umdev.infoeste.repositories.ProductSort;
+import com.umdev.infoeste.services.CategoryDictionary;
+import com.umdev.infoeste.services.ProductFilter;
+import com.umdev.infoeste.services.cache.ListingResultCache.ListingKey;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ListingResultCacheTest {
+
+    private static final UUID STORE = UUID.randomUUID();
+    private static final UUID OTHER_STORE = UUID.randomUUID();
+    private static final int BEBIDAS = 1;
+    private static final int LIMPEZA = 2;
+
+    private ListingResultCache cache;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        CategoryRepository categoryRepository = mock(CategoryRepository.class);
+        when(categoryRepository.findAll()).thenReturn(List.of(
+                new Category(BEBIDAS, "Bebidas", "bebidas"),
+                new Category(LIMPEZA, "Limpeza", "limpeza")));
+        CategoryDictionary categoryDictionary = new CategoryDictionary(categoryRepository, Duration.ofMinutes(1));
+        categoryDictionary.load();
+
+        cache = new ListingResultCache(Caffeine.newBuilder().build(), categoryDictionary);
+    }
+
+    private static ListingKey key(UUID storeId, String category) {
+        return new ListingKey(ProductFilter.of(storeId, null, category, null, null), ProductSort.NEWEST,
+                1, 20, null, true);
+    }
+
+    private void list(ListingKey key) {
+        cache.get(key, ids -> List.of(), () -> {
+            loads.incrementAndGet();
+            return new PaginatedResponseDto<ProductPublicDto>(new PaginatedResponseDto.MetaData(1, 20, 0), List.of());
+        });
+    }
+
+    // Quantas das listagens precisaram ir ao banco de novo
+    private int reloads(List<ListingKey> keys) {
+        int before = loads.get();
+        keys.forEach(this::list);
+        return loads.get() - before;
+    }
+
+    @Test
+    void servesRepeatedListingsFromTheCache() {
+        ListingKey key = key(null, null);
+
+        assertEquals(1, reloads(List.of(key)));
+        assertEquals(0, reloads(List.of(key)));
+    }
+
+    @Test
+    void productChangeOnlyEvictsListingsThatCouldContainIt() {
+        ListingKey everything = key(null, null);
+        ListingKey sameStore = key(STORE, null);
+        ListingKey otherStore = key(OTHER_STORE, null);
+        ListingKey oldCategory = key(null, "Bebidas");
+        ListingKey unrelatedCategory = key(null, "Limpeza");
+        ListingKey sameStoreOtherCategory = key(STORE, "Limpeza");
+        List<ListingKey> keys = List.of(everything, sameStore, otherStore, oldCategory, unrelatedCategory,
+                sameStoreOtherCategory);
+        reloads(keys);
+
+        cache.onProductChanged(new ProductChangedEvent(UUID.randomUUID(), STORE, Set.of(BEBIDAS)));
+
+        assertEquals(1, reloads(List.of(everything)));
+        assertEquals(1, reloads(List.of(sameStore)));
+        assertEquals(1, reloads(List.of(oldCategory)));
+        assertEquals(0, reloads(List.of(otherStore, unrelatedCategory, sameStoreOtherCategory)));
+    }
+
+    @Test
+    void categoryMoveEvictsBothCategories() {
+        ListingKey bebidas = key(null, "bebidas");
+        ListingKey limpeza = key(null, "LIMPEZA");
+        reloads(List.of(bebidas, limpeza));
+
+        cache.onProductChanged(new ProductChangedEvent(UUID.randomUUID(), STORE, Set.of(BEBIDAS, LIMPEZA)));
+
+        assertEquals(2, reloads(List.of(bebidas, limpeza)));
+    }
+}
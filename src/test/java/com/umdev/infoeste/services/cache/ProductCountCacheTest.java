@@ -0,0 +1,95 @@
+package com.umdev.infoeste.services.cache;
+
+import com.umdev.infoeste.events.ProductChangedEvent;
+import com.umdev.infoeste.services.ProductFilter;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProductCountCacheTest {
+
+    private static final UUID STORE_A = UUID.randomUUID();
+    private static final UUID STORE_B = UUID.randomUUID();
+
+    private final ProductCountCache cache = new ProductCountCache(Duration.ofMinutes(1), 100);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private static ProductFilter storeFilter(UUID storeId) {
+        return ProductFilter.of(storeId, null, null, null, null);
+    }
+
+    private long count(ProductCountCache cache, ProductFilter filter, long value) {
+        return cache.get(filter, () -> {
+            loads.incrementAndGet();
+            return value;
+        });
+    }
+
+    private static ProductChangedEvent changed(UUID storeId) {
+        return new ProductChangedEvent(UUID.randomUUID(), storeId, Set.of());
+    }
+
+    @Test
+    void repeatedFiltersAreCountedOnce() {
+        assertEquals(3, count(cache, ProductFilter.of(null, " Café ", "Bebidas", null, null), 3));
+        assertEquals(3, count(cache, ProductFilter.of(null, "cafe", "bebidas", null, null), 99));
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void doesNotCacheACountRacingWithAWrite() {
+        ProductFilter filter = storeFilter(STORE_A);
+
+        long raced = cache.get(filter, () -> {
+            cache.onProductChanged(changed(STORE_B));
+            return 5;
+        });
+
+        assertEquals(5, raced);
+        assertEquals(6, count(cache, filter, 6));
+    }
+
+    @Test
+    void changesOnlyEvictTheirOwnStoreAndGlobalListings() {
+        ProductFilter storeA = storeFilter(STORE_A);
+        ProductFilter storeB = storeFilter(STORE_B);
+        ProductFilter global = storeFilter(null);
+        count(cache, storeA, 1);
+        count(cache, storeB, 2);
+        count(cache, global, 3);
+
+        cache.onProductChanged(changed(STORE_A));
+
+        assertEquals(10, count(cache, storeA, 10));
+        assertEquals(2, count(cache, storeB, 20));
+        assertEquals(30, count(cache, global, 30));
+    }
+
+    @Test
+    void expiredCountsAreLoadedAgain() {
+        ProductCountCache expiring = new ProductCountCache(Duration.ZERO, 100);
+        ProductFilter filter = storeFilter(STORE_A);
+
+        count(expiring, filter, 1);
+
+        assertEquals(2, count(expiring, filter, 2));
+    }
+
+    @Test
+    void staysWithinMaxEntries() {
+        ProductCountCache small = new ProductCountCache(Duration.ofMinutes(1), 2);
+        count(small, storeFilter(STORE_A), 1);
+        count(small, storeFilter(STORE_B), 2);
+        count(small, storeFilter(null), 3);
+
+        // O terceiro filtro esvaziou o cache antes de entrar
+        assertEquals(10, count(small, storeFilter(STORE_A), 10));
+        assertEquals(3, count(small, storeFilter(null), 30));
+    }
+}
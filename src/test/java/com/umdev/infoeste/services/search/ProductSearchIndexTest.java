@@ -0,0 +1,144 @@
+package com.umdev.infoeste.services.search;
+
+import com.umdev.infoeste.events.ProductChangedEvent;
+import com.umdev.infoeste.repositories.ProductRepository;
+import com.umdev.infoeste.repositories.projections.ProductSearchView;
+import com.umdev.infoeste.services.search.ProductSearchIndex.SearchHit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductSearchIndexTest {
+
+    private record View(UUID id, String name, String description, String category, UUID storeId,
+                        Integer categoryId, BigDecimal price) implements ProductSearchView {
+        @Override
+        public UUID getId() {
+            return id;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getDescription() {
+            return description;
+        }
+
+        @Override
+        public String getCategory() {
+            return category;
+        }
+
+        @Override
+        public UUID getStoreId() {
+            return storeId;
+        }
+
+        @Override
+        public Integer getCategoryId() {
+            return categoryId;
+        }
+
+        @Override
+        public BigDecimal getPrice() {
+            return price;
+        }
+
+        @Override
+        public LocalDateTime getCreatedAt() {
+            return LocalDateTime.of(2025, 1, 1, 0, 0);
+        }
+    }
+
+    private static final UUID STORE = UUID.randomUUID();
+
+    private ProductRepository productRepository;
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        index = new ProductSearchIndex(productRepository);
+    }
+
+    private UUID save(UUID id, String name, String description, String category, UUID storeId) {
+        when(productRepository.findSearchViewById(id)).thenReturn(Optional.of(
+                new View(id, name, description, category, storeId, 1, BigDecimal.TEN)));
+        index.onProductChanged(new ProductChangedEvent(id, storeId, Set.of(1)));
+        return id;
+    }
+
+    private List<UUID> search(String query) {
+        return index.search(query, hit -> true).stream().map(SearchHit::id).toList();
+    }
+
+    @Test
+    void nameMatchesOutrankDescriptionMatches() {
+        UUID inDescription = save(UUID.randomUUID(), "Mochila escolar", "Cabe um notebook de 15 polegadas", "Acessórios", STORE);
+        UUID inName = save(UUID.randomUUID(), "Notebook Dell", "Processador i5 e 8 GB de memória", "Informática", STORE);
+        save(UUID.randomUUID(), "Caneca", "Porcelana branca", "Cozinha", STORE);
+
+        assertEquals(List.of(inName, inDescription), search("notebook"));
+    }
+
+    @Test
+    void matchesPrefixesAccentsAndEveryTerm() {
+        UUID cafe = save(UUID.randomUUID(), "Café torrado", "Grãos selecionados", "Bebidas", STORE);
+        save(UUID.randomUUID(), "Chá verde", "Folhas selecionadas", "Bebidas", STORE);
+
+        assertEquals(List.of(cafe), search("cafe"));
+        assertEquals(List.of(cafe), search("torr"));
+        assertEquals(List.of(cafe), search("cafe graos"));
+        assertTrue(search("cafe folhas").isEmpty());
+    }
+
+    @Test
+    void shortPrefixesReachEveryMatchingTerm() {
+        // Muitos termos começando com "ca" antes de "cadeira" na ordem alfabética
+        for (int i = 0; i < 60; i++) {
+            save(UUID.randomUUID(), "Caa" + (char) ('a' + i / 26) + (char) ('a' + i % 26), null, "Diversos", STORE);
+        }
+        UUID chair = save(UUID.randomUUID(), "Cadeira", null, "Móveis", STORE);
+
+        assertEquals(61, search("ca").size());
+        assertTrue(search("ca").contains(chair));
+    }
+
+    @Test
+    void appliesTheFilterBeforeReturningHits() {
+        UUID otherStore = UUID.randomUUID();
+        UUID mine = save(UUID.randomUUID(), "Bola de futebol", null, "Esportes", STORE);
+        save(UUID.randomUUID(), "Bola de vôlei", null, "Esportes", otherStore);
+
+        List<SearchHit> hits = index.search("bola", hit -> STORE.equals(hit.storeId()));
+
+        assertEquals(List.of(mine), hits.stream().map(SearchHit::id).toList());
+    }
+
+    @Test
+    void followsProductChangeEvents() {
+        UUID id = save(UUID.randomUUID(), "Cadeira gamer", "Reclinável", "Móveis", STORE);
+
+        save(id, "Mesa de escritório", "Tampo de madeira", "Móveis", STORE);
+        assertTrue(search("cadeira").isEmpty());
+        assertEquals(List.of(id), search("mesa"));
+
+        when(productRepository.findSearchViewById(id)).thenReturn(Optional.empty());
+        index.onProductChanged(new ProductChangedEvent(id, STORE, Set.of(1)));
+        assertTrue(search("mesa").isEmpty());
+    }
+}
@@ -0,0 +1,104 @@
+package com.umdev.infoeste.services.search;
+
+import com.umdev.infoeste.events.StoreChangedEvent;
+import com.umdev.infoeste.repositories.StoreRepository;
+import com.umdev.infoeste.repositories.projections.StoreSearchView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StoreTrigramIndexTest {
+
+    private record View(UUID id, String name, String city) implements StoreSearchView {
+        @Override
+        public UUID getId() {
+            return id;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getCity() {
+            return city;
+        }
+    }
+
+    private StoreRepository storeRepository;
+    private StoreTrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        storeRepository = mock(StoreRepository.class);
+        index = new StoreTrigramIndex(storeRepository, 0.5, 500);
+    }
+
+    private UUID addStore(String name, String city) {
+        UUID id = UUID.randomUUID();
+        when(storeRepository.findSearchViewById(id)).thenReturn(Optional.of(new View(id, name, city)));
+        index.onStoreChanged(new StoreChangedEvent(id));
+        return id;
+    }
+
+    private List<UUID> search(String query) {
+        return index.search(query).stream().map(StoreTrigramIndex.StoreHit::id).toList();
+    }
+
+    @Test
+    void toleratesTyposAndAccents() {
+        UUID bakery = addStore("Padaria Pão Quente", "Presidente Prudente");
+        addStore("Mercado Central", "Marília");
+
+        assertEquals(List.of(bakery), search("Presidente Prudnete"));
+        assertEquals(List.of(bakery), search("padaria pao"));
+    }
+
+    @Test
+    void likeWildcardsAreNotTreatedAsPatterns() {
+        addStore("Padaria Pão Quente", "Presidente Prudente");
+        addStore("Mercado Central", "Marília");
+
+        assertTrue(search("%").isEmpty());
+        assertTrue(search("_").isEmpty());
+        assertTrue(search("%_%").isEmpty());
+        assertEquals(search("padaria"), search("padaria%"));
+    }
+
+    @Test
+    void scoresNameAndCitySeparately() {
+        // Parte da busca no nome e parte na cidade não soma: vale o campo que mais cobre a busca
+        UUID split = addStore("Padaria", "Central");
+        UUID name = addStore("Padaria Centro", "Marília");
+
+        List<UUID> results = search("padaria central");
+
+        assertEquals(List.of(name, split), results);
+    }
+
+    @Test
+    void similarityDoesNotDependOnOtherStores() {
+        // A similaridade serve de chave do cursor: lojas novas não podem mudar a de quem já estava no resultado
+        UUID bakery = addStore("Padaria Pão Quente", "Presidente Prudente");
+        double before = index.search("padaria").get(0).similarity();
+
+        addStore("Padaria Nova", "Marília");
+        addStore("Padaria do Centro", "Assis");
+
+        double after = index.search("padaria").stream()
+                .filter(hit -> hit.id().equals(bakery))
+                .findFirst()
+                .orElseThrow()
+                .similarity();
+        assertEquals(before, after);
+    }
+}
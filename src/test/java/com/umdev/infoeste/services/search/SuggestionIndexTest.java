@@ -0,0 +1,170 @@
+package com.umdev.infoeste.services.search;
+
+import com.umdev.infoeste.dto.SuggestionDto;
+import com.umdev.infoeste.events.ProductChangedEvent;
+import com.umdev.infoeste.events.StoreChangedEvent;
+import com.umdev.infoeste.repositories.ProductRepository;
+import com.umdev.infoeste.repositories.StoreRepository;
+import com.umdev.infoeste.repositories.projections.ProductSearchView;
+import com.umdev.infoeste.repositories.projections.StoreSearchView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SuggestionIndexTest {
+
+    private record ProductView(UUID id, String name, String category) implements ProductSearchView {
+        @Override
+        public UUID getId() {
+            return id;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getDescription() {
+            return null;
+        }
+
+        @Override
+        public String getCategory() {
+            return category;
+        }
+
+        @Override
+        public UUID getStoreId() {
+            return STORE;
+        }
+
+        @Override
+        public Integer getCategoryId() {
+            return null;
+        }
+
+        @Override
+        public BigDecimal getPrice() {
+            return BigDecimal.ONE;
+        }
+
+        @Override
+        public LocalDateTime getCreatedAt() {
+            return LocalDateTime.of(2025, 1, 1, 0, 0);
+        }
+    }
+
+    private record StoreView(UUID id, String name) implements StoreSearchView {
+        @Override
+        public UUID getId() {
+            return id;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getCity() {
+            return "Marília";
+        }
+    }
+
+    private static final UUID STORE = UUID.randomUUID();
+
+    private ProductRepository productRepository;
+    private StoreRepository storeRepository;
+    private SuggestionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        storeRepository = mock(StoreRepository.class);
+        index = new SuggestionIndex(productRepository, storeRepository);
+    }
+
+    private UUID saveProduct(UUID id, String name, String category) {
+        when(productRepository.findSearchViewById(id)).thenReturn(Optional.of(new ProductView(id, name, category)));
+        index.onProductChanged(new ProductChangedEvent(id, STORE, Set.of()));
+        return id;
+    }
+
+    private void deleteProduct(UUID id) {
+        when(productRepository.findSearchViewById(id)).thenReturn(Optional.empty());
+        index.onProductChanged(new ProductChangedEvent(id, STORE, Set.of()));
+    }
+
+    private List<String> suggest(String prefix) {
+        return index.suggest(prefix, 10).stream().map(SuggestionDto::text).toList();
+    }
+
+    @Test
+    void suggestsTextsStartingWithThePrefixBeforeInnerWords() {
+        saveProduct(UUID.randomUUID(), "Pão de queijo", "Padaria");
+        saveProduct(UUID.randomUUID(), "Queijo minas", "Laticínios");
+
+        assertEquals(List.of("Queijo minas", "Pão de queijo"), suggest("quei"));
+        assertEquals(List.of("Padaria", "Pão de queijo"), suggest("pa"));
+    }
+
+    @Test
+    void includesStoresAndTheirRenames() {
+        UUID storeId = UUID.randomUUID();
+        when(storeRepository.findSearchViewById(storeId)).thenReturn(Optional.of(new StoreView(storeId, "Mercado Sol")));
+        index.onStoreChanged(new StoreChangedEvent(storeId));
+
+        assertEquals(List.of(new SuggestionDto("Mercado Sol", SuggestionDto.Type.STORE, storeId)),
+                index.suggest("merc", 10));
+
+        when(storeRepository.findSearchViewById(storeId)).thenReturn(Optional.of(new StoreView(storeId, "Empório Sol")));
+        index.onStoreChanged(new StoreChangedEvent(storeId));
+
+        assertTrue(suggest("merc").isEmpty());
+        assertEquals(List.of("Empório Sol"), suggest("empo"));
+    }
+
+    @Test
+    void categoryLeavesWithItsLastProduct() {
+        UUID cheese = saveProduct(UUID.randomUUID(), "Queijo", "Laticínios");
+        UUID milk = saveProduct(UUID.randomUUID(), "Leite", "laticinios");
+
+        deleteProduct(cheese);
+        assertEquals(List.of("Laticínios"), suggest("latic"));
+
+        deleteProduct(milk);
+        assertTrue(suggest("latic").isEmpty());
+    }
+
+    @Test
+    void movingAProductReleasesItsOldCategory() {
+        UUID id = saveProduct(UUID.randomUUID(), "Detergente", "Limpeza");
+
+        saveProduct(id, "Detergente", "Casa");
+
+        assertTrue(suggest("limp").isEmpty());
+        assertEquals(List.of("Casa"), suggest("cas"));
+    }
+
+    @Test
+    void honoursTheLimit() {
+        for (int i = 0; i < 5; i++) {
+            saveProduct(UUID.randomUUID(), "Caneca " + i, null);
+        }
+
+        assertEquals(3, index.suggest("caneca", 3).size());
+        assertTrue(index.suggest(" ", 3).isEmpty());
+    }
+}
@@ -0,0 +1,124 @@
+package com.umdev.infoeste.services.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageRenditionServiceTest {
+
+    @TempDir
+    Path root;
+
+    private LocalImageStorage storage;
+    private boolean rejecting;
+    private final List<Runnable> queued = new ArrayList<>();
+    private ImageRenditionService service;
+
+    @BeforeEach
+    void setUp() {
+        storage = new LocalImageStorage(root.toString());
+        // Guarda as tarefas para o teste decidir quando rodá-las, ou rejeita como uma fila cheia
+        TaskExecutor executor = task -> {
+            if (rejecting) {
+                throw new TaskRejectedException("queue full");
+            }
+            queued.add(task);
+        };
+        service = new ImageRenditionService(storage, executor);
+    }
+
+    private String storePng(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return storage.store(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    private void runQueued() {
+        List<Runnable> tasks = new ArrayList<>(queued);
+        queued.clear();
+        tasks.forEach(Runnable::run);
+    }
+
+    private BufferedImage rendition(String key, ImageSize size) throws IOException {
+        Resource resource = storage.loadRendition(key, size).orElseThrow();
+        try (InputStream in = resource.getInputStream()) {
+            return ImageIO.read(in);
+        }
+    }
+
+    @Test
+    void generatesEachRenditionKeepingTheAspectRatio() throws IOException {
+        String key = storePng(1200, 600);
+
+        service.generateAsync(key, "image/png");
+        runQueued();
+
+        assertEquals(480, rendition(key, ImageSize.MEDIUM).getWidth());
+        assertEquals(240, rendition(key, ImageSize.MEDIUM).getHeight());
+        assertEquals(160, rendition(key, ImageSize.SMALL).getWidth());
+        assertEquals(80, rendition(key, ImageSize.SMALL).getHeight());
+    }
+
+    @Test
+    void smallImagesAreNotUpscaled() throws IOException {
+        String key = storePng(100, 50);
+
+        service.generateAsync(key, "image/png");
+        runQueued();
+
+        assertEquals(100, rendition(key, ImageSize.MEDIUM).getWidth());
+        assertEquals(100, rendition(key, ImageSize.SMALL).getWidth());
+    }
+
+    @Test
+    void schedulesAnImageOnlyOnceWhileInProgress() throws IOException {
+        String key = storePng(200, 100);
+
+        service.generateAsync(key, "image/png");
+        service.generateAsync(key, "image/png");
+        assertEquals(1, queued.size());
+
+        runQueued();
+        service.generateAsync(key, "image/png");
+        assertEquals(1, queued.size());
+    }
+
+    @Test
+    void rejectedTasksCanBeScheduledAgain() throws IOException {
+        String key = storePng(200, 100);
+
+        rejecting = true;
+        service.generateAsync(key, "image/png");
+        rejecting = false;
+        service.generateAsync(key, "image/png");
+
+        assertEquals(1, queued.size());
+    }
+
+    @Test
+    void skipsTypesThatCannotBeDecoded() {
+        assertFalse(service.supports("image/webp"));
+        assertTrue(service.supports("image/jpeg"));
+
+        service.generateAsync("0".repeat(64), "image/webp");
+
+        assertTrue(queued.isEmpty());
+    }
+}
@@ -0,0 +1,43 @@
+package com.umdev.infoeste.services.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ImageTypeDetectorTest {
+
+    private static byte[] header(int... bytes) {
+        byte[] header = new byte[ImageTypeDetector.HEADER_LENGTH];
+        for (int i = 0; i < bytes.length; i++) {
+            header[i] = (byte) bytes[i];
+        }
+        return header;
+    }
+
+    @Test
+    void detectsJpegPngAndWebp() {
+        assertEquals(Optional.of("image/jpeg"), ImageTypeDetector.detect(header(0xFF, 0xD8, 0xFF, 0xE0)));
+        assertEquals(Optional.of("image/png"),
+                ImageTypeDetector.detect(header(0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n')));
+        assertEquals(Optional.of("image/webp"),
+                ImageTypeDetector.detect("RIFF\0\0\0\0WEBP".getBytes(StandardCharsets.ISO_8859_1)));
+    }
+
+    @Test
+    void rejectsOtherContentWhateverItClaimsToBe() {
+        // RIFF sem WEBP é, por exemplo, um WAV
+        assertEquals(Optional.empty(), ImageTypeDetector.detect("RIFF\0\0\0\0WAVE".getBytes(StandardCharsets.ISO_8859_1)));
+        assertEquals(Optional.empty(), ImageTypeDetector.detect("GIF89a".getBytes(StandardCharsets.ISO_8859_1)));
+        assertEquals(Optional.empty(), ImageTypeDetector.detect("<svg xmlns=".getBytes(StandardCharsets.ISO_8859_1)));
+    }
+
+    @Test
+    void toleratesShortHeaders() {
+        assertEquals(Optional.empty(), ImageTypeDetector.detect(new byte[0]));
+        assertEquals(Optional.empty(), ImageTypeDetector.detect(new byte[]{(byte) 0xFF, (byte) 0xD8}));
+        assertEquals(Optional.empty(), ImageTypeDetector.detect("RIFF\0\0".getBytes(StandardCharsets.ISO_8859_1)));
+    }
+}
@@ -0,0 +1,77 @@
+package com.umdev.infoeste.services.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ImageUploadStreamTest {
+
+    private static final int MB = 1024 * 1024;
+
+    private static byte[] png(int length) {
+        byte[] bytes = new byte[length];
+        byte[] magic = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+        System.arraycopy(magic, 0, bytes, 0, Math.min(magic.length, length));
+        return bytes;
+    }
+
+    private static ImageUploadStream stream(byte[] bytes, long maxBytes) {
+        return new ImageUploadStream(new ByteArrayInputStream(bytes), maxBytes);
+    }
+
+    @Test
+    void passesThroughAnImageAtTheLimit() throws IOException {
+        byte[] image = png(MB);
+        ImageUploadStream stream = stream(image, MB);
+
+        assertArrayEquals(image, stream.readAllBytes());
+        assertEquals(MB, stream.getBytesRead());
+        assertEquals("image/png", stream.getDetectedType());
+    }
+
+    @Test
+    void abortsAsSoonAsTheLimitIsExceeded() {
+        ImageUploadStream stream = stream(png(MB + 1), MB);
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, stream::readAllBytes);
+        assertEquals("Image file size exceeds 1MB limit", error.getMessage());
+    }
+
+    @Test
+    void countsSingleByteReadsTowardsTheLimit() throws IOException {
+        ImageUploadStream stream = stream(png(20), 16);
+
+        for (int i = 0; i < 16; i++) {
+            stream.read();
+        }
+        assertThrows(IllegalArgumentException.class, stream::read);
+    }
+
+    @Test
+    void rejectsContentThatIsNotAnImageOnceTheHeaderIsRead() {
+        ImageUploadStream stream = stream("<html><body></body></html>".getBytes(), MB);
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> stream.read(new byte[64]));
+        assertEquals("Only JPG, PNG, and WEBP images are allowed", error.getMessage());
+    }
+
+    @Test
+    void rejectsUploadsShorterThanTheHeader() {
+        ImageUploadStream stream = stream(new byte[]{(byte) 0xFF, (byte) 0xD8}, MB);
+
+        assertThrows(IllegalArgumentException.class, stream::readAllBytes);
+    }
+
+    @Test
+    void refusesToSkipPastTheChecks() {
+        InputStream stream = stream(png(64), MB);
+
+        assertThrows(IOException.class, () -> stream.skip(32));
+    }
+}
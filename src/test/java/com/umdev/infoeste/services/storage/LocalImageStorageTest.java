@@ -0,0 +1,132 @@
+package com.umdev.infoeste.services.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalImageStorageTest {
+
+    @TempDir
+    Path root;
+
+    private LocalImageStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = new LocalImageStorage(root.toString());
+    }
+
+    private String store(String content) {
+        return storage.store(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private Path blob(String key) {
+        return root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+    }
+
+    private void age(String key, Duration age) throws IOException {
+        Files.setLastModifiedTime(blob(key), FileTime.from(Instant.now().minus(age)));
+    }
+
+    private long fileCount() throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+
+    @Test
+    void keysAreTheSha256OfTheContent() throws Exception {
+        String key = store("image");
+
+        String expected = HexFormat.of().formatHex(
+                MessageDigest.getInstance("SHA-256").digest("image".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(expected, key);
+        assertArrayEquals("image".getBytes(StandardCharsets.UTF_8), storage.load(key).getContentAsByteArray());
+    }
+
+    @Test
+    void identicalUploadsShareOneBlob() throws IOException {
+        String first = store("same bytes");
+        String second = store("same bytes");
+
+        assertEquals(first, second);
+        assertEquals(1, fileCount());
+    }
+
+    @Test
+    void reuploadRenewsTheBlobSoTheCollectorSparesIt() throws IOException {
+        String key = store("image");
+        age(key, Duration.ofDays(2));
+        Instant cutoff = Instant.now().minus(Duration.ofDays(1));
+        assertEquals(List.of(key), storage.findKeysOlderThan(cutoff));
+
+        store("image");
+
+        assertEquals(List.of(), storage.findKeysOlderThan(cutoff));
+    }
+
+    @Test
+    void deletesOnlyBlobsPastTheGracePeriodAndNotInUse() throws IOException {
+        String old = store("old");
+        String recent = store("recent");
+        age(old, Duration.ofDays(2));
+        Instant cutoff = Instant.now().minus(Duration.ofDays(1));
+
+        assertFalse(storage.deleteIfUnused(recent, cutoff, key -> false));
+        assertFalse(storage.deleteIfUnused(old, cutoff, key -> true));
+        assertTrue(storage.exists(old));
+
+        assertTrue(storage.deleteIfUnused(old, cutoff, key -> false));
+        assertFalse(storage.exists(old));
+        assertTrue(storage.exists(recent));
+    }
+
+    @Test
+    void deletingABlobRemovesItsRenditions() throws IOException {
+        String key = store("image");
+        storage.storeRendition(key, ImageSize.SMALL, new byte[]{1});
+        storage.storeRendition(key, ImageSize.MEDIUM, new byte[]{2});
+        age(key, Duration.ofDays(2));
+
+        assertTrue(storage.loadRendition(key, ImageSize.SMALL).isPresent());
+        assertTrue(storage.deleteIfUnused(key, Instant.now(), k -> false));
+
+        assertTrue(storage.loadRendition(key, ImageSize.SMALL).isEmpty());
+        assertTrue(storage.loadRendition(key, ImageSize.MEDIUM).isEmpty());
+        assertEquals(0, fileCount());
+    }
+
+    @Test
+    void renditionsAndTemporaryFilesAreNotListedAsBlobs() throws IOException {
+        String key = store("image");
+        storage.storeRendition(key, ImageSize.SMALL, new byte[]{1});
+        Files.createTempFile(root.resolve("uploads"), "upload-", ".tmp");
+
+        assertEquals(List.of(key), storage.findKeysOlderThan(Instant.now().plusSeconds(60)));
+    }
+
+    @Test
+    void rejectsKeysThatCouldEscapeTheRoot() {
+        assertThrows(IllegalArgumentException.class, () -> storage.load("../../etc/passwd"));
+        assertThrows(IllegalArgumentException.class, () -> storage.exists("ABC"));
+    }
+}
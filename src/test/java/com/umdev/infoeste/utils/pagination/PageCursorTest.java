@@ -0,0 +1,60 @@
+package com.umdev.infoeste.utils.pagination;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PageCursorTest {
+
+    private static final UUID ID = UUID.fromString("3f2b8c1e-5d4a-4e6f-9a7b-1c2d3e4f5a6b");
+
+    @Test
+    void roundTripsEverySort() {
+        PageCursor newest = new PageCursor(LocalDateTime.of(2025, 3, 14, 15, 9, 26), ID);
+        PageCursor relevance = new PageCursor(PageCursor.RELEVANCE, "7.25", ID);
+        PageCursor byName = new PageCursor("name", "Café | moído", ID);
+
+        assertEquals(newest, PageCursor.decode(newest.encode()));
+        assertEquals(relevance, PageCursor.decode(relevance.encode()));
+        assertEquals(byName, PageCursor.decode(byName.encode()));
+        assertEquals(7.25, PageCursor.decode(relevance.encode()).score());
+    }
+
+    @Test
+    void decodesLegacyCreatedAtTokensAsNewest() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 11, 2, 8, 30);
+        String legacy = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((createdAt + "|" + ID).getBytes(StandardCharsets.UTF_8));
+
+        PageCursor cursor = PageCursor.decode(legacy);
+
+        assertEquals(PageCursor.NEWEST, cursor.sort());
+        assertEquals(createdAt, cursor.createdAt());
+        assertEquals(ID, cursor.id());
+    }
+
+    @Test
+    void blankTokenMeansFirstPage() {
+        assertNull(PageCursor.decode(null));
+        assertNull(PageCursor.decode(" "));
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        String withoutId = Base64.getUrlEncoder().encodeToString("newest|2025-01-01T00:00".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(withoutId));
+        assertThrows(IllegalArgumentException.class,
+                () -> new PageCursor(PageCursor.RELEVANCE, "abc", ID).score());
+        assertThrows(IllegalArgumentException.class,
+                () -> new PageCursor(PageCursor.NEWEST, "yesterday", ID).createdAt());
+    }
+}
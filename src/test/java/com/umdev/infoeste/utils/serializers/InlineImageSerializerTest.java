@@ -0,0 +1,58 @@
+package com.umdev.infoeste.utils.serializers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.umdev.infoeste.dto.InlineImageDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.util.Base64;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InlineImageSerializerTest {
+
+    private static final int CHUNK_SIZE = 3 * 4096;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+
+    private String serialize(byte[] image) throws Exception {
+        InlineImageDto dto = new InlineImageDto("image/png", new ByteArrayResource(image));
+        return objectMapper.writeValueAsString(Map.of("imageData", dto));
+    }
+
+    private static String expected(byte[] image) {
+        return "{\"imageData\":\"data:image/png;base64," + Base64.getEncoder().encodeToString(image) + "\"}";
+    }
+
+    @Test
+    void matchesEncodingTheWholeImageAtOnce() throws Exception {
+        // Menor que um bloco, exatamente um bloco, vários blocos com resto e sobra de 1 e 2 bytes no padding
+        for (int length : new int[]{1, 2, 100, CHUNK_SIZE, CHUNK_SIZE + 1, 3 * CHUNK_SIZE + 2}) {
+            byte[] image = randomBytes(length);
+
+            assertEquals(expected(image), serialize(image), "length " + length);
+        }
+    }
+
+    @Test
+    void writesAnEmptyImageAsABareDataUri() throws Exception {
+        assertEquals("{\"imageData\":\"data:image/png;base64,\"}", serialize(new byte[0]));
+    }
+
+    @Test
+    void producesValidJson() throws Exception {
+        byte[] image = randomBytes(2 * CHUNK_SIZE + 7);
+
+        String dataUri = objectMapper.readTree(serialize(image)).get("imageData").asText();
+
+        assertEquals(expected(image), "{\"imageData\":\"" + dataUri + "\"}");
+    }
+}